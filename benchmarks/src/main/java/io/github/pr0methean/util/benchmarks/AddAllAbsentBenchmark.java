@@ -0,0 +1,71 @@
+package io.github.pr0methean.util.benchmarks;
+
+import io.github.pr0methean.util.AtomicReferenceArrayList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long {@link AtomicReferenceArrayList#addAllAbsent(java.util.Collection)} takes, and
+ * so how long it holds the lock, as the list and the batch grow. Half of each batch is already in
+ * the list. {@code linearScan} is the previous algorithm, which checked each candidate with
+ * {@code contains()}. Run with {@code java -jar target/benchmarks.jar AddAllAbsentBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AddAllAbsentBenchmark {
+    @Param({"10000", "200000"})
+    public int listSize;
+
+    @Param({"100", "10000"})
+    public int batchSize;
+
+    private AtomicReferenceArrayList<Integer> list;
+    private List<Integer> batch;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        list = new AtomicReferenceArrayList<>(listSize + batchSize);
+        for (int i = 0; i < listSize; i++) {
+            list.add(i);
+        }
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            // Even candidates are already present; odd ones are new
+            batch.add(i % 2 == 0 ? i * (listSize / batchSize) : listSize + i);
+        }
+    }
+
+    @Benchmark
+    public int hashed() {
+        return list.addAllAbsent(batch);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int added = 0;
+        for (Integer element : batch) {
+            if (!list.contains(element)) {
+                list.add(element);
+                added++;
+            }
+        }
+        return added;
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.pr0methean.util.benchmarks;
+
+import io.github.pr0methean.util.AtomicReferenceArrayList;
+import io.github.pr0methean.util.FixedSizeAtomicReferenceArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the volatile {@code get} and {@code set} of both list classes against
+ * {@code getAcquire}, {@code getOpaque}, {@code setRelease} and {@code lazySet}, for a single
+ * thread that walks the list. The difference depends heavily on the hardware: on x86, acquire and
+ * opaque reads compile to the same instructions as volatile ones, and only the writes get cheaper.
+ * Run with {@code java -jar target/benchmarks.jar MemoryOrderBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryOrderBenchmark {
+    /** Must be a power of two. */
+    @Param({"1024"})
+    public int size;
+
+    private AtomicReferenceArrayList<Integer> growable;
+    private FixedSizeAtomicReferenceArrayList<Integer> fixed;
+    private int index;
+    private final Integer value = 42;
+
+    @Setup
+    public void setUp() {
+        growable = new AtomicReferenceArrayList<>();
+        fixed = new FixedSizeAtomicReferenceArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            growable.add(i);
+            fixed.set(i, i);
+        }
+    }
+
+    private int next() {
+        int index = this.index;
+        this.index = (index + 1) & (size - 1);
+        return index;
+    }
+
+    @Benchmark
+    public Integer fixedGet() {
+        return fixed.get(next());
+    }
+
+    @Benchmark
+    public Integer fixedGetAcquire() {
+        return fixed.getAcquire(next());
+    }
+
+    @Benchmark
+    public Integer fixedGetOpaque() {
+        return fixed.getOpaque(next());
+    }
+
+    @Benchmark
+    public Integer fixedSet() {
+        return fixed.set(next(), value);
+    }
+
+    @Benchmark
+    public void fixedSetRelease() {
+        fixed.setRelease(next(), value);
+    }
+
+    @Benchmark
+    public void fixedLazySet() {
+        fixed.lazySet(next(), value);
+    }
+
+    @Benchmark
+    public Integer growableGet() {
+        return growable.get(next());
+    }
+
+    @Benchmark
+    public Integer growableGetAcquire() {
+        return growable.getAcquire(next());
+    }
+
+    @Benchmark
+    public Integer growableGetOpaque() {
+        return growable.getOpaque(next());
+    }
+
+    @Benchmark
+    public Integer growableSet() {
+        return growable.set(next(), value);
+    }
+
+    @Benchmark
+    public void growableSetRelease() {
+        growable.setRelease(next(), value);
+    }
+}
@@ -0,0 +1,185 @@
+package io.github.pr0methean.util.benchmarks;
+
+import io.github.pr0methean.util.AtomicReferenceArrayList;
+import io.github.pr0methean.util.FixedSizeAtomicReferenceArrayList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the same mix of reads and writes against {@link AtomicReferenceArrayList} and the JDK's
+ * concurrent lists. Each operation is a read with probability {@code readPercent}%, and otherwise a
+ * write. {@code readOp} is either {@code get} at a random index or {@code iterate} over the whole
+ * list. {@code writeOp} is one of:
+ * <ul>
+ *     <li>{@code set}: replaces the element at a random index</li>
+ *     <li>{@code add}: alternately appends and removes near the end</li>
+ *     <li>{@code addIndex}: alternately inserts and removes at random indices</li>
+ *     <li>{@code remove}: alternately removes at a random index and appends</li>
+ * </ul>
+ * Each thread undoes its own structural writes, so the size stays between {@code size} and
+ * {@code size} plus the thread count. {@link FixedSizeAtomicReferenceArrayList} only supports
+ * {@code set}, so its setup fails for the other write operations.
+ *
+ * <p>Run with {@code java -jar target/benchmarks.jar MixedWorkloadBenchmark -t 4}, or with
+ * {@code java -cp target/benchmarks.jar io.github.pr0methean.util.benchmarks.MixedWorkloadBenchmark
+ * 1 2 4 8} to repeat the whole run for each thread count; add {@code -p name=value} options to
+ * the former to narrow down the parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MixedWorkloadBenchmark {
+    @Param({"AtomicReferenceArrayList", "CopyOnWriteArrayList", "Vector", "synchronizedList",
+            "FixedSizeAtomicReferenceArrayList"})
+    public String implementation;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"50", "90", "99"})
+    public int readPercent;
+
+    @Param({"get", "iterate"})
+    public String readOp;
+
+    @Param({"set", "add", "addIndex", "remove"})
+    public String writeOp;
+
+    private List<Integer> list;
+    /** Whether the list must be locked to iterate over it while it's being modified. */
+    private boolean lockToIterate;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        /** Whether this thread's last structural write grew the list. */
+        boolean grown;
+    }
+
+    @Setup
+    public void setUp() {
+        switch (implementation) {
+            case "AtomicReferenceArrayList":
+                list = new AtomicReferenceArrayList<>();
+                break;
+            case "CopyOnWriteArrayList":
+                list = new CopyOnWriteArrayList<>();
+                break;
+            case "Vector":
+                list = new Vector<>();
+                lockToIterate = true;
+                break;
+            case "synchronizedList":
+                list = Collections.synchronizedList(new ArrayList<>());
+                lockToIterate = true;
+                break;
+            case "FixedSizeAtomicReferenceArrayList":
+                if (!"set".equals(writeOp)) {
+                    throw new UnsupportedOperationException(
+                            "FixedSizeAtomicReferenceArrayList only supports writeOp=set");
+                }
+                list = new FixedSizeAtomicReferenceArrayList<>(size);
+                break;
+            default:
+                throw new IllegalArgumentException(implementation);
+        }
+        List<Integer> initial = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            initial.add(i);
+        }
+        if (list instanceof FixedSizeAtomicReferenceArrayList) {
+            for (int i = 0; i < size; i++) {
+                list.set(i, i);
+            }
+        } else {
+            list.addAll(initial);
+        }
+    }
+
+    @Benchmark
+    public Object operation(ThreadState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < readPercent) {
+            return read(random);
+        }
+        return write(state, random);
+    }
+
+    private Object read(ThreadLocalRandom random) {
+        if ("get".equals(readOp)) {
+            return list.get(random.nextInt(size));
+        }
+        if (lockToIterate) {
+            synchronized (list) {
+                return iterate();
+            }
+        }
+        return iterate();
+    }
+
+    private int iterate() {
+        int sum = 0;
+        for (Integer value : list) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private Object write(ThreadState state, ThreadLocalRandom random) {
+        Integer value = random.nextInt();
+        switch (writeOp) {
+            case "set":
+                return list.set(random.nextInt(size), value);
+            case "add":
+                // Index size is valid whenever this thread has grown the list, since other threads
+                // only undo their own appends
+                state.grown = !state.grown;
+                return state.grown ? list.add(value) : list.remove(size);
+            case "addIndex":
+                state.grown = !state.grown;
+                if (state.grown) {
+                    list.add(random.nextInt(size), value);
+                    return value;
+                }
+                return list.remove(random.nextInt(size));
+            case "remove":
+                state.grown = !state.grown;
+                return state.grown ? list.add(value) : list.remove(random.nextInt(size));
+            default:
+                throw new IllegalArgumentException(writeOp);
+        }
+    }
+
+    /**
+     * Runs this benchmark once for each thread count given as an argument.
+     */
+    public static void main(String[] args) throws RunnerException {
+        for (String threads : args) {
+            new Runner(new OptionsBuilder()
+                    .include(MixedWorkloadBenchmark.class.getSimpleName())
+                    .threads(Integer.parseInt(threads))
+                    .build()).run();
+        }
+    }
+}
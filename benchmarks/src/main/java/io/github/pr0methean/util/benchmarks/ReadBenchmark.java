@@ -0,0 +1,90 @@
+package io.github.pr0methean.util.benchmarks;
+
+import io.github.pr0methean.util.AtomicReferenceArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the optimistic {@link AtomicReferenceArrayList#get(int)} and
+ * {@link AtomicReferenceArrayList#size()} against {@link ReadWriteLockedList}, both with readers
+ * alone and with a thread making structural writes at the same time. Run with
+ * {@code java -jar target/benchmarks.jar ReadBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadBenchmark {
+    @Param({"AtomicReferenceArrayList", "ReadWriteLockedList"})
+    public String implementation;
+
+    /** Must be a power of two. */
+    @Param({"1024"})
+    public int size;
+
+    private List<Integer> list;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+    }
+
+    @Setup
+    public void setUp() {
+        list = "ReadWriteLockedList".equals(implementation)
+                ? new ReadWriteLockedList<>()
+                : new AtomicReferenceArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+    }
+
+    private Integer next(Cursor cursor) {
+        int index = cursor.index;
+        cursor.index = (index + 1) & (size - 1);
+        return list.get(index);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Integer get(Cursor cursor) {
+        return next(cursor);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int size() {
+        return list.size();
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public Integer getWhileWriting(Cursor cursor) {
+        return next(cursor);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public Integer structuralWrite() {
+        list.add(-1);
+        return list.remove(list.size() - 1);
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.pr0methean.util.benchmarks;
+
+import java.util.AbstractList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Baseline with the locking scheme that {@link io.github.pr0methean.util.AtomicReferenceArrayList}
+ * used before it switched to a {@link java.util.concurrent.locks.StampedLock}: every
+ * {@link #get(int)} and {@link #size()} takes a {@link ReentrantReadWriteLock}'s read lock, and
+ * every structural change takes its write lock.
+ *
+ * @param <T> the element type
+ */
+public class ReadWriteLockedList<T> extends AbstractList<T> {
+    private AtomicReferenceArray<T> array = new AtomicReferenceArray<>(1);
+    private final ReadWriteLock sizeLock = new ReentrantReadWriteLock();
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    @Override
+    public T get(int index) {
+        sizeLock.readLock().lock();
+        try {
+            if (index >= size.get()) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            return array.get(index);
+        } finally {
+            sizeLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        sizeLock.readLock().lock();
+        try {
+            return size.get();
+        } finally {
+            sizeLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean add(T t) {
+        sizeLock.writeLock().lock();
+        try {
+            int index = size.get();
+            if (index >= array.length()) {
+                AtomicReferenceArray<T> oldArray = array;
+                array = new AtomicReferenceArray<>(oldArray.length() * 2);
+                for (int i = 0; i < oldArray.length(); i++) {
+                    array.set(i, oldArray.get(i));
+                }
+            }
+            array.set(index, t);
+            size.set(index + 1);
+            return true;
+        } finally {
+            sizeLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public T remove(int index) {
+        sizeLock.writeLock().lock();
+        try {
+            int size = this.size.get();
+            if (index < 0 || index >= size) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            T removed = array.get(index);
+            for (int i = index; i < size - 1; i++) {
+                array.set(i, array.get(i + 1));
+            }
+            array.set(size - 1, null);
+            this.size.set(size - 1);
+            return removed;
+        } finally {
+            sizeLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.pr0methean.util.benchmarks;
+
+import io.github.pr0methean.util.AtomicReferenceArrayList;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the compact serialized form of {@link AtomicReferenceArrayList} with the default form,
+ * which writes every slot of the backing array along with the lock and counters. A subclass
+ * doesn't inherit the compact form, so {@code default} uses a trivial subclass. The sizes are just
+ * past a power of two, so that after growing by doubling, almost half of each array is unused. The
+ * serialized length of each is printed during setup. Run with
+ * {@code java -jar target/benchmarks.jar SerializationBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"1025", "65537"})
+    public int size;
+
+    @Param({"compact", "default"})
+    public String form;
+
+    private AtomicReferenceArrayList<Integer> list;
+    private byte[] serialized;
+
+    /**
+     * Keeps the default serialized form, since {@code writeReplace} is private to its superclass.
+     */
+    static final class DefaultFormList<T> extends AtomicReferenceArrayList<T> {
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        list = form.equals("compact") ? new AtomicReferenceArrayList<>() : new DefaultFormList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        serialized = serialize();
+        System.out.printf("%n%s form of %d elements: %d bytes%n", form, size, serialized.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(list);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+}
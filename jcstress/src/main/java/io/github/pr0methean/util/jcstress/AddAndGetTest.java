@@ -0,0 +1,42 @@
+package io.github.pr0methean.util.jcstress;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+import io.github.pr0methean.util.AtomicReferenceArrayList;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+/**
+ * A reader that sees an append in {@link AtomicReferenceArrayList#size()} must also see the
+ * appended element, even though the append only holds the read lock and publishes the new size
+ * after storing the element. The list starts full, so the append also has to grow the array.
+ */
+@JCStressTest
+@Outcome(id = "1, -1", expect = ACCEPTABLE, desc = "The append hadn't been published yet")
+@Outcome(id = "2, 42", expect = ACCEPTABLE, desc = "The append was published with its element")
+@Outcome(id = "2, -2", expect = FORBIDDEN, desc = "The new size was visible before the element")
+@Outcome(expect = FORBIDDEN, desc = "Some other element was read")
+@State
+public class AddAndGetTest {
+    private final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(1);
+
+    public AddAndGetTest() {
+        list.add(0);
+    }
+
+    @Actor
+    public void append() {
+        list.add(42);
+    }
+
+    @Actor
+    public void read(II_Result r) {
+        int size = list.size();
+        r.r1 = size;
+        r.r2 = size == 2 ? GrowAndSetTest.valueOf(list.get(1)) : -1;
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.pr0methean.util.jcstress;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+import io.github.pr0methean.util.AtomicReferenceArrayList;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+/**
+ * An append that has to grow the full array races with a set of an existing element. The set
+ * must survive whether it lands in the old array before the copy, while a transfer is in
+ * progress, or in the new array, and the append must survive the set.
+ */
+@JCStressTest
+@Outcome(id = "2, 1", expect = ACCEPTABLE, desc = "Both writes survived the resize")
+@Outcome(id = "0, 1", expect = FORBIDDEN, desc = "The set was lost in the old array")
+@Outcome(expect = FORBIDDEN, desc = "An element was lost or misplaced")
+@State
+public class GrowAndSetTest {
+    private final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(1);
+
+    public GrowAndSetTest() {
+        list.add(0);
+    }
+
+    @Actor
+    public void append() {
+        list.add(1);
+    }
+
+    @Actor
+    public void set() {
+        list.set(0, 2);
+    }
+
+    @Arbiter
+    public void check(II_Result r) {
+        r.r1 = valueOf(list.get(0));
+        r.r2 = list.size() == 2 ? valueOf(list.get(1)) : -1;
+    }
+
+    static int valueOf(Integer element) {
+        return element == null ? -2 : element;
+    }
+}
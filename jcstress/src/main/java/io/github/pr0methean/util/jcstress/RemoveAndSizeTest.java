@@ -0,0 +1,79 @@
+package io.github.pr0methean.util.jcstress;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+import io.github.pr0methean.util.AtomicReferenceArrayList;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+/**
+ * A reader that sees the size shrink after {@link AtomicReferenceArrayList#remove(int)} must also
+ * see the shifted elements, and must never read the cleared slot at the old end of the list.
+ */
+public class RemoveAndSizeTest {
+    /**
+     * Removes the first of eight elements, so that every remaining one shifts down.
+     */
+    @JCStressTest
+    @Outcome(id = "8, 1", expect = ACCEPTABLE, desc = "Read entirely before the removal")
+    @Outcome(id = "8, 2", expect = ACCEPTABLE, desc = "Read the size before the removal")
+    @Outcome(id = "7, 2", expect = ACCEPTABLE, desc = "Read entirely after the removal")
+    @Outcome(id = "7, 1", expect = FORBIDDEN, desc = "Saw the new size but not the shift")
+    @Outcome(expect = FORBIDDEN, desc = "Read a cleared slot or the wrong element")
+    @State
+    public static class Shifting {
+        private final AtomicReferenceArrayList<Integer> list = create(false);
+
+        @Actor
+        public void remove() {
+            list.remove(0);
+        }
+
+        @Actor
+        public void read(II_Result r) {
+            int size = list.size();
+            r.r1 = size;
+            r.r2 = GrowAndSetTest.valueOf(list.get(0));
+        }
+    }
+
+    /**
+     * As {@link Shifting}, but with lazy removal. One tombstone among eight slots is too few to
+     * trigger compaction, so the removed element stays in slot 0, and a reader that sees the new
+     * size can only read 2 by translating index 0 through the tombstones to slot 1.
+     */
+    @JCStressTest
+    @Outcome(id = "8, 1", expect = ACCEPTABLE, desc = "Read entirely before the removal")
+    @Outcome(id = "8, 2", expect = ACCEPTABLE, desc = "Read the size before the removal")
+    @Outcome(id = "7, 2", expect = ACCEPTABLE, desc = "Read entirely after the removal")
+    @Outcome(id = "7, 1", expect = FORBIDDEN, desc = "Saw the new size but read the tombstone")
+    @Outcome(expect = FORBIDDEN, desc = "Read a tombstone or the wrong element")
+    @State
+    public static class Lazy {
+        private final AtomicReferenceArrayList<Integer> list = create(true);
+
+        @Actor
+        public void remove() {
+            list.remove(0);
+        }
+
+        @Actor
+        public void read(II_Result r) {
+            int size = list.size();
+            r.r1 = size;
+            r.r2 = GrowAndSetTest.valueOf(list.get(0));
+        }
+    }
+
+    private static AtomicReferenceArrayList<Integer> create(boolean lazyRemoval) {
+        AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(8, false, lazyRemoval);
+        for (int i = 1; i <= 8; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,356 @@
+package io.github.pr0methean.util;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent list of mutable length, backed by an {@link AtomicIntegerArray} so that elements aren't
+ * boxed. The {@code int}-valued methods such as {@link #getInt(int)}, {@link #setInt(int, int)}
+ * and {@link #addInt(int)} never allocate; the {@link java.util.List} methods box and unbox.
+ *
+ * <p>Locks the same way as {@link AtomicReferenceArrayList}: reads are optimistic, appends and
+ * in-bounds writes hold the read lock, and anything that moves elements holds the write lock.
+ * Since a primitive array can't hold a forwarding marker, the array grows under the write lock.
+ */
+public class AtomicIntArrayList extends AbstractList<Integer>
+        implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Only ever replaced by a longer array, except by {@link #clear()}, and always under the write
+     * lock. So a reader that reads {@link #size} before this field can index the array anywhere
+     * below that size, unless the list was cleared in between, which an optimistic read catches
+     * when it validates its stamp.
+     */
+    protected volatile AtomicIntegerArray array;
+    /**
+     * Held for reading by anything that only changes slots or appends, and for writing by anything
+     * else that changes the size or moves elements, including growing the array.
+     */
+    private final StampedLock sizeLock = new StampedLock();
+    private final AtomicInteger size = new AtomicInteger(0);
+    /**
+     * Number of slots claimed by {@link #addInt(int)}, including those whose elements haven't been
+     * published to {@link #size} yet. Equal to {@link #size} whenever the write lock is held.
+     */
+    private final AtomicInteger reserved = new AtomicInteger(0);
+
+    protected AtomicIntArrayList(AtomicIntegerArray array) {
+        this.array = array;
+    }
+
+    public AtomicIntArrayList() {
+        this(1);
+    }
+
+    /**
+     * @param size the initial capacity
+     */
+    public AtomicIntArrayList(int size) {
+        this(new AtomicIntegerArray(size));
+    }
+
+    public AtomicIntArrayList(int... elements) {
+        this(new AtomicIntegerArray(elements));
+        setSize(elements.length);
+    }
+
+    /**
+     * Reads without locking, and only falls back to the read lock if the write lock was taken in
+     * the meantime.
+     */
+    public int getInt(int index) {
+        long stamp = sizeLock.tryOptimisticRead();
+        if (stamp != 0) {
+            int size = this.size.get();
+            AtomicIntegerArray array = this.array;
+            if (index >= size) {
+                if (sizeLock.validate(stamp)) {
+                    throw new ArrayIndexOutOfBoundsException();
+                }
+            } else if (index < array.length()) {
+                int value = array.get(index);
+                if (sizeLock.validate(stamp)) {
+                    return value;
+                }
+            }
+        }
+        stamp = sizeLock.readLock();
+        try {
+            if (index >= size.get()) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            return array.get(index);
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    /**
+     * Sets an element, extending the list with zeroes if {@code index} is past the end.
+     *
+     * @return the previous value
+     */
+    public int setInt(int index, int element) {
+        long stamp = sizeLock.readLock();
+        try {
+            if (index < size.get()) {
+                return array.getAndSet(index, element);
+            }
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+        // If we've gotten to here, we're expanding the list
+        stamp = sizeLock.writeLock();
+        try {
+            if (array.length() <= index) {
+                grow(index + 1);
+            }
+            if (size.get() <= index) {
+                setSize(index + 1);
+            }
+            return array.getAndSet(index, element);
+        } finally {
+            sizeLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Integer set(int index, Integer element) {
+        return setInt(index, element);
+    }
+
+    /**
+     * Atomically adds {@code delta} to the element at {@code index}.
+     *
+     * @return the previous value
+     */
+    public int getAndAdd(int index, int delta) {
+        long stamp = sizeLock.readLock();
+        try {
+            checkIndex(index);
+            return array.getAndAdd(index, delta);
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Atomically adds {@code delta} to the element at {@code index}.
+     *
+     * @return the updated value
+     */
+    public int addAndGet(int index, int delta) {
+        long stamp = sizeLock.readLock();
+        try {
+            checkIndex(index);
+            return array.addAndGet(index, delta);
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Atomically increments the element at {@code index}.
+     *
+     * @return the updated value
+     */
+    public int incrementAndGet(int index) {
+        return addAndGet(index, 1);
+    }
+
+    /**
+     * Atomically decrements the element at {@code index}.
+     *
+     * @return the updated value
+     */
+    public int decrementAndGet(int index) {
+        return addAndGet(index, -1);
+    }
+
+    /**
+     * Must be called with a lock held.
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size.get()) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Appends an element while holding only the read lock, the same way as
+     * {@link AtomicReferenceArrayList#add(Object)}. If the array is full, releases the read lock
+     * and grows it under the write lock.
+     */
+    public void addInt(int element) {
+        while (true) {
+            long stamp = sizeLock.readLock();
+            int index;
+            try {
+                AtomicIntegerArray array = this.array;
+                index = reserved.get();
+                if (index < array.length()) {
+                    if (reserved.compareAndSet(index, index + 1)) {
+                        // Every later append waits for this slot, so it must be published even
+                        // if something throws
+                        try {
+                            array.set(index, element);
+                        } finally {
+                            publish(index, 1);
+                        }
+                        return;
+                    }
+                    continue;
+                }
+            } finally {
+                sizeLock.unlockRead(stamp);
+            }
+            stamp = sizeLock.writeLock();
+            try {
+                if (array.length() <= reserved.get()) {
+                    grow(reserved.get() + 1);
+                }
+            } finally {
+                sizeLock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    public boolean add(Integer element) {
+        addInt(element);
+        return true;
+    }
+
+    /**
+     * Waits until all slots before {@code index} are published, then publishes {@code count} slots
+     * starting at {@code index}. Must be called with the read lock held, after claiming those slots
+     * from {@link #reserved}.
+     */
+    private void publish(int index, int count) {
+        while (!size.compareAndSet(index, index + count)) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Inserts an element, shifting the following ones.
+     */
+    public void addInt(int index, int element) {
+        long stamp = sizeLock.writeLock();
+        try {
+            int size = this.size.get();
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (array.length() <= size) {
+                grow(size + 1);
+            }
+            for (int i = size; i > index; i--) {
+                array.set(i, array.get(i - 1));
+            }
+            array.set(index, element);
+            setSize(size + 1);
+        } finally {
+            sizeLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void add(int index, Integer element) {
+        addInt(index, element);
+    }
+
+    /**
+     * Removes an element, shifting the following ones.
+     *
+     * @return the removed value
+     */
+    public int removeInt(int index) {
+        long stamp = sizeLock.writeLock();
+        try {
+            int size = this.size.get();
+            if (index < 0 || index >= size) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            int removed = array.get(index);
+            for (int i = index + 1; i < size; i++) {
+                array.set(i - 1, array.get(i));
+            }
+            array.set(size - 1, 0);
+            setSize(size - 1);
+            return removed;
+        } finally {
+            sizeLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Integer remove(int index) {
+        return removeInt(index);
+    }
+
+    /**
+     * Doesn't lock, since {@link #size} is only ever updated atomically.
+     */
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public void clear() {
+        long stamp = sizeLock.writeLock();
+        try {
+            array = new AtomicIntegerArray(1);
+            setSize(0);
+        } finally {
+            sizeLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns a spliterator over the elements below the size at the time it's created, which reads
+     * each element from the backing array without locking, as
+     * {@link AtomicReferenceArrayList#spliterator()} does.
+     */
+    @Override
+    public Spliterator<Integer> spliterator() {
+        int size = this.size.get();
+        AtomicIntegerArray array = this.array;
+        return new IndexRangeSpliterator<>(array::get, 0, Math.min(size, array.length()),
+                Spliterator.CONCURRENT | Spliterator.NONNULL);
+    }
+
+    /**
+     * Replaces the array with one at least twice as long and at least {@code minCapacity} long.
+     * Must be called with the write lock held.
+     */
+    private void grow(int minCapacity) {
+        AtomicIntegerArray oldArray = array;
+        AtomicIntegerArray newArray
+                = new AtomicIntegerArray(Math.max(minCapacity, oldArray.length() * 2));
+        for (int i = 0; i < oldArray.length(); i++) {
+            newArray.set(i, oldArray.get(i));
+        }
+        array = newArray;
+    }
+
+    /**
+     * Must be called with the write lock held.
+     */
+    private void setSize(int newSize) {
+        size.set(newSize);
+        reserved.set(newSize);
+    }
+}
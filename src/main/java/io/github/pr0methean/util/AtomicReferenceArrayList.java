@@ -1,12 +1,39 @@
 package io.github.pr0methean.util;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
 import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.ListIterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicReferenceArray;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * Concurrent list of mutable length, backed by an {@link AtomicReferenceArray}. I believe all
@@ -15,134 +42,2093 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * @param <T> the element type
  */
 public class AtomicReferenceArrayList<T> extends AbstractList<T>
-        implements Cloneable, Serializable {
-    @SuppressWarnings({"MethodDoesntCallSuperMethod","unchecked"})
+        implements Cloneable, RandomAccess, Serializable {
+    /**
+     * Returns a copy with the same elements and settings, made while holding the read lock once, so
+     * that no element is skipped or repeated because of a concurrent insertion or removal. The copy's
+     * backing array is exactly as long as its size. Like {@link #snapshot()}, except that it's
+     * mutable and doesn't share anything with this list.
+     */
+    @SuppressWarnings("MethodDoesntCallSuperMethod")
+    @Override
+    public AtomicReferenceArrayList<T> clone() {
+        long stamp = readLock();
+        try {
+            int size = this.size.get();
+            AtomicReferenceArrayList<T> clone
+                    = new AtomicReferenceArrayList<>(size, positions != null, lazyRemoval);
+            clone.growthPolicy = growthPolicy;
+            clone.parallelSearchThreshold = parallelSearchThreshold;
+            AtomicReferenceArray<T> array = this.array;
+            for (int i = 0; i < size; i++) {
+                T element = load(array, i);
+                clone.array.set(i, element);
+                clone.index(element, i);
+            }
+            clone.setSize(size);
+            return clone;
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    public static final int DEFAULT_PARALLEL_SEARCH_THRESHOLD = 1 << 16;
+    private static final int NCPU = Runtime.getRuntime().availableProcessors();
+    /**
+     * Whether the {@code jdk.jfr} module is present, so that {@link FlightRecorderEvents} can be
+     * loaded.
+     */
+    private static final boolean JFR_AVAILABLE
+            = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+    /**
+     * Minimum number of slots a thread claims at once while helping to copy into a larger array.
+     */
+    private static final int MIN_TRANSFER_STRIDE = 16;
+    /**
+     * Base-2 logarithm of the number of slots a snapshot saves at once, the first time any of them
+     * is overwritten.
+     */
+    private static final int SNAPSHOT_CHUNK_SHIFT = 10;
+    private static final int SNAPSHOT_CHUNK_MASK = (1 << SNAPSHOT_CHUNK_SHIFT) - 1;
+
+    /**
+     * Only ever replaced by a longer array, except by methods that hold the write lock. So a reader
+     * that reads {@link #size} before this field can index the array anywhere below that size,
+     * as long as it validates an optimistic stamp taken before either read or holds a lock: only
+     * something that shrinks the array, such as {@link #clear()}, can make it shorter in between.
+     */
+    protected volatile AtomicReferenceArray<T> array;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<AtomicReferenceArrayList, AtomicReferenceArray>
+            ARRAY = AtomicReferenceFieldUpdater.newUpdater(
+                    AtomicReferenceArrayList.class, AtomicReferenceArray.class, "array");
+    /**
+     * Held for reading by anything that only changes slots or appends, and for writing by anything
+     * else that changes the size or moves elements. {@link #get(int)} doesn't take it at all unless an
+     * optimistic read fails validation.
+     */
+    private final StampedLock sizeLock = new StampedLock();
+    private final AtomicInteger size = new AtomicInteger(0);
+    /**
+     * Number of slots claimed by {@link #add(Object)}, including those whose elements haven't been
+     * published to {@link #size} yet. Equal to {@link #size} whenever the write lock is held.
+     */
+    private final AtomicInteger reserved = new AtomicInteger(0);
+    /**
+     * The copy from {@link #array} into a larger array that's currently in progress, if any. Never
+     * set while the write lock is held.
+     */
+    private final AtomicReference<Transfer<T>> transfer = new AtomicReference<>();
+    /**
+     * Positions of each value, keyed by {@link #indexKey(Object)}, if this list was created with an
+     * index; otherwise null. Updated under the write lock by anything that moves elements, and
+     * otherwise while synchronized on the map itself, except by appends, which can't race with
+     * anything else writing the same slot.
+     */
+    private final ConcurrentHashMap<Object, ConcurrentSkipListSet<Integer>> positions;
+    /**
+     * Stands in for null in {@link #positions}, which can't hold a null key.
+     */
+    private static final Object NULL_KEY = new Object();
+    private volatile int parallelSearchThreshold = DEFAULT_PARALLEL_SEARCH_THRESHOLD;
+    private volatile GrowthPolicy growthPolicy = GrowthPolicy.DOUBLING;
+    /**
+     * Whether {@link #remove(int)} leaves a tombstone instead of shifting the following elements.
+     */
+    private final boolean lazyRemoval;
+    /**
+     * Slots whose elements were removed lazily, if there are any; otherwise null. Only created,
+     * changed and cleared with the write lock held, and always null while the read lock is held by
+     * anything other than {@link #get(int)} and {@link #size()}, which are the only methods that
+     * translate indices through it.
+     */
+    private volatile Tombstones tombstones;
+    /**
+     * The most recent snapshot, if any. While it's reachable, anything that overwrites a slot below
+     * its size must first call {@link #preserve(int, int)}. Only replaced with the write lock held.
+     */
+    private transient volatile WeakReference<Snapshot> latestSnapshot;
+    /**
+     * Receives instrumentation events, if any. While it's null, the only cost of instrumentation is
+     * reading this field wherever an event could be recorded. Not serialized, since listeners are
+     * usually tied to the JVM they were registered in.
+     */
+    private transient volatile ListMetricsListener metricsListener;
+    /**
+     * The {@link FlightRecorderEvents} write lock event for the current holder of the write lock,
+     * if it's being recorded. Only accessed with the write lock held.
+     */
+    private transient Object writeLockEvent;
+    /**
+     * Listener calls for events that happened under the write lock, which {@link #unlockWrite(long)}
+     * makes once it's released, so that the listener can call back into the list. Only accessed
+     * with the write lock held.
+     */
+    private transient List<Runnable> pendingEvents;
+
+    /**
+     * A copy of {@link #source} into {@link #destination}, split into chunks that threads claim
+     * from the top down. Once a slot has been copied, the source slot holds the transfer itself, so
+     * that readers and writers still holding the source array know to look in the destination.
+     * The destination is only allocated by the thread that installs the transfer, so that threads
+     * racing to start one don't each allocate an array only to throw it away.
+     */
+    private static final class Transfer<T> {
+        final AtomicReferenceArray<T> source;
+        final int newLength;
+        /** Null until {@link #allocate()} returns; nothing may be moved before then. */
+        volatile AtomicReferenceArray<T> destination;
+        final int stride;
+        /** End of the next chunk to be claimed; chunks run from here down to here minus stride. */
+        final AtomicInteger nextChunkEnd;
+        /** Number of slots that haven't been copied yet. */
+        final AtomicInteger remaining;
+        /**
+         * The {@link FlightRecorderEvents} resize event, if it's being recorded. Written before
+         * {@link #destination}, so it's visible to anyone who has seen that.
+         */
+        Object resizeEvent;
+
+        Transfer(AtomicReferenceArray<T> source, int newLength) {
+            this.source = source;
+            this.newLength = newLength;
+            int length = source.length();
+            stride = Math.max(MIN_TRANSFER_STRIDE, NCPU > 1 ? (length >>> 3) / NCPU : length);
+            nextChunkEnd = new AtomicInteger(length);
+            remaining = new AtomicInteger(length);
+        }
+
+        /**
+         * Allocates the destination. Must be called exactly once, by the thread that installed
+         * this transfer.
+         */
+        void allocate() {
+            resizeEvent = JFR_AVAILABLE ? FlightRecorderEvents.beginResize() : null;
+            destination = new AtomicReferenceArray<>(newLength);
+        }
+
+        /**
+         * Copies one slot and marks it as moved. If a writer changes the slot while we're copying,
+         * the compare-and-set fails and we copy again.
+         */
+        @SuppressWarnings("unchecked")
+        void move(int index) {
+            T value;
+            do {
+                value = source.get(index);
+                destination.set(index, value);
+            } while (!source.compareAndSet(index, value, (T) this));
+        }
+    }
+
+    /**
+     * Set of tombstoned slots, with a Fenwick tree over its words counting the tombstones in each
+     * so that the slot holding a given index can be found in logarithmic time.
+     */
+    private static final class Tombstones implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final long[] words;
+        /** Fenwick tree, indexed from 1, of the number of tombstones in each word. */
+        final int[] tree;
+        int count;
+
+        /**
+         * @param length the number of slots in use, none of which may be appended to or moved
+         *     while this exists
+         */
+        Tombstones(int length) {
+            words = new long[(length + 63) >>> 6];
+            tree = new int[words.length + 1];
+        }
+
+        void add(int slot) {
+            words[slot >>> 6] |= 1L << slot;
+            for (int i = (slot >>> 6) + 1; i < tree.length; i += i & -i) {
+                tree[i]++;
+            }
+            count++;
+        }
+
+        /**
+         * Returns the slot that holds the element at {@code index}, which must be less than the
+         * number of slots that aren't tombstones. May return garbage within an optimistic read that
+         * will fail validation, but never loops forever or throws.
+         */
+        int select(int index) {
+            int word = 0;
+            int remaining = index;
+            for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>>= 1) {
+                int next = word + step;
+                if (next < tree.length) {
+                    // Counts slots past the end of the list as live, but those all come after the
+                    // slot we're looking for
+                    int live = (step << 6) - tree[next];
+                    if (live <= remaining) {
+                        word = next;
+                        remaining -= live;
+                    }
+                }
+            }
+            if (word >= words.length || remaining >= 64) {
+                return Integer.MAX_VALUE;
+            }
+            long live = ~words[word];
+            for (int i = 0; i < remaining; i++) {
+                live &= live - 1;
+            }
+            return (word << 6) + Long.numberOfTrailingZeros(live);
+        }
+    }
+
+    protected AtomicReferenceArrayList(AtomicReferenceArray<T> array) {
+        this(array, false);
+    }
+
+    protected AtomicReferenceArrayList(AtomicReferenceArray<T> array, boolean indexed) {
+        this(array, indexed, false);
+    }
+
+    protected AtomicReferenceArrayList(AtomicReferenceArray<T> array, boolean indexed,
+            boolean lazyRemoval) {
+        this.array = array;
+        positions = indexed ? new ConcurrentHashMap<>() : null;
+        this.lazyRemoval = lazyRemoval;
+    }
+
+    public AtomicReferenceArrayList() {
+        this(1);
+    }
+
+    public AtomicReferenceArrayList(int size) {
+        this(size, false);
+    }
+
+    /**
+     * @param size the initial capacity
+     * @param indexed whether to keep a concurrent map from each value to its positions, so that
+     *     {@link #contains(Object)}, {@link #indexOf(Object)} and {@link #lastIndexOf(Object)} don't
+     *     have to scan the list. Every write then also updates the map, and writes that replace
+     *     existing elements serialize with each other, though not with appends or reads.
+     */
+    public AtomicReferenceArrayList(int size, boolean indexed) {
+        this(new AtomicReferenceArray<>(size), indexed);
+    }
+
+    /**
+     * @param size the initial capacity
+     * @param indexed as in {@link #AtomicReferenceArrayList(int, boolean)}
+     * @param lazyRemoval whether {@link #remove(int)} should only mark the element's slot as a
+     *     tombstone, in time logarithmic in the size, instead of shifting all the following
+     *     elements under the write lock. While there are tombstones, {@link #get(int)} and
+     *     {@link #size()} translate indices through a rank structure over them, and everything
+     *     else first compacts the list in one pass, as does {@link #remove(int)} once a quarter of
+     *     the slots are tombstones. {@link #compact()} can also be called from a background thread
+     *     to keep reads on the fast path.
+     */
+    public AtomicReferenceArrayList(int size, boolean indexed, boolean lazyRemoval) {
+        this(new AtomicReferenceArray<>(size), indexed, lazyRemoval);
+    }
+
+    @SafeVarargs
+    public AtomicReferenceArrayList(T... elements) {
+        this(new AtomicReferenceArray<>(elements));
+        setSize(elements.length);
+    }
+
+    @Override
+    public T set(final int index, T element) {
+        long stamp = readLock();
+        try {
+            if (index < size.get()) {
+                preserve(index, index + 1);
+                recordSet(true);
+                if (positions == null) {
+                    return store(array, index, element);
+                }
+                synchronized (positions) {
+                    T old = store(array, index, element);
+                    unindex(old, index);
+                    index(element, index);
+                    return old;
+                }
+            }
+            // We're expanding the list, so make room without blocking readers before we take the
+            // write lock
+            growConcurrently(index + 1);
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+        stamp = writeLock("set");
+        try {
+            if (array.length() <= index) {
+                // The list was cleared in the meantime
+                grow(index + 1);
+            }
+            int size = this.size.get();
+            if (size <= index) {
+                if (positions != null) {
+                    // The slots we skip over become null elements
+                    for (int i = size; i < index; i++) {
+                        index(null, i);
+                    }
+                }
+                setSize(index + 1);
+            }
+            preserve(index, index + 1);
+            recordSet(false);
+            T old = array.getAndSet(index, element);
+            if (positions != null) {
+                if (index < size) {
+                    unindex(old, index);
+                }
+                index(element, index);
+            }
+            return old;
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Sets the element at {@code index} with release semantics, as
+     * {@link AtomicReferenceArray#setRelease(int, Object)} does, which is enough when a single
+     * thread writes each slot and readers use {@link #getAcquire(int)}. Still takes the read lock,
+     * and since a resize may be copying the slot, still writes it with a compare-and-set, but one
+     * with only release semantics. Unlike {@link #set(int, Object)}, this doesn't extend the list.
+     *
+     * @throws ArrayIndexOutOfBoundsException if {@code index} isn't below the size
+     */
+    public void setRelease(int index, T newValue) {
+        long stamp = readLock();
+        try {
+            if (index < 0 || index >= size.get()) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            preserve(index, index + 1);
+            if (positions == null) {
+                storeRelease(array, index, newValue);
+                return;
+            }
+            synchronized (positions) {
+                T old = store(array, index, newValue);
+                unindex(old, index);
+                index(newValue, index);
+            }
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Same as {@link #setRelease(int, Object)}, named after
+     * {@link AtomicReferenceArray#lazySet(int, Object)}.
+     */
+    public void lazySet(int index, T newValue) {
+        setRelease(index, newValue);
+    }
+
+    /**
+     * Atomically sets the element at {@code index} to {@code newValue} if it's
+     * {@code expectedValue}, compared by identity as in
+     * {@link AtomicReferenceArray#compareAndSet(int, Object, Object)}. Only holds the read lock, as
+     * {@link #set(int, Object)} does within bounds.
+     *
+     * @return whether the element was set
+     * @throws ArrayIndexOutOfBoundsException if {@code index} isn't below the size
+     */
+    public boolean compareAndSet(int index, T expectedValue, T newValue) {
+        return compareAndSet(index, expectedValue, newValue, false);
+    }
+
+    /**
+     * Like {@link #compareAndSet(int, Object, Object)}, but may fail spuriously, as
+     * {@link AtomicReferenceArray#weakCompareAndSetVolatile(int, Object, Object)} does, and so
+     * may be cheaper in a retry loop.
+     *
+     * @return whether the element was set
+     * @throws ArrayIndexOutOfBoundsException if {@code index} isn't below the size
+     */
+    public boolean weakCompareAndSet(int index, T expectedValue, T newValue) {
+        return compareAndSet(index, expectedValue, newValue, true);
+    }
+
+    private boolean compareAndSet(int index, T expectedValue, T newValue, boolean weak) {
+        long stamp = readLock();
+        try {
+            if (index < 0 || index >= size.get()) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            preserve(index, index + 1);
+            if (positions == null) {
+                return compareAndStore(array, index, expectedValue, newValue, weak);
+            }
+            synchronized (positions) {
+                if (!compareAndStore(array, index, expectedValue, newValue, weak)) {
+                    return false;
+                }
+                unindex(expectedValue, index);
+                index(newValue, index);
+                return true;
+            }
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Atomically replaces the element at {@code index} with the result of {@code updateFunction},
+     * retrying if another thread changes it in the meantime, so the function should be free of
+     * side effects.
+     *
+     * @return the previous value
+     */
+    public T getAndUpdate(int index, UnaryOperator<T> updateFunction) {
+        T prev;
+        T next;
+        do {
+            prev = get(index);
+            next = updateFunction.apply(prev);
+        } while (!weakCompareAndSet(index, prev, next));
+        return prev;
+    }
+
+    /**
+     * Atomically replaces the element at {@code index} with the result of {@code updateFunction},
+     * retrying if another thread changes it in the meantime, so the function should be free of
+     * side effects.
+     *
+     * @return the updated value
+     */
+    public T updateAndGet(int index, UnaryOperator<T> updateFunction) {
+        T prev;
+        T next;
+        do {
+            prev = get(index);
+            next = updateFunction.apply(prev);
+        } while (!weakCompareAndSet(index, prev, next));
+        return next;
+    }
+
+    /**
+     * Atomically replaces the element at {@code index} with the result of applying
+     * {@code accumulatorFunction} to it and {@code x}, retrying if another thread changes it in the
+     * meantime, so the function should be free of side effects.
+     *
+     * @return the updated value
+     */
+    public T accumulateAndGet(int index, T x, BinaryOperator<T> accumulatorFunction) {
+        T prev;
+        T next;
+        do {
+            prev = get(index);
+            next = accumulatorFunction.apply(prev, x);
+        } while (!weakCompareAndSet(index, prev, next));
+        return next;
+    }
+
+    private static Object indexKey(Object value) {
+        return value == null ? NULL_KEY : value;
+    }
+
+    /**
+     * If this list has an index, calls {@code value}'s {@code hashCode}, so that an element that
+     * can't be indexed is rejected before an append claims a slot for it. An append that fails to
+     * index its element anyway publishes the slot as null; see
+     * {@link #publish(AtomicReferenceArray, int, int, int)}.
+     */
+    private void checkIndexable(Object value) {
+        if (positions != null) {
+            indexKey(value).hashCode();
+        }
+    }
+
+    /**
+     * Records {@code value} at {@code index} in {@link #positions}, if this list has an index.
+     */
+    private void index(Object value, int index) {
+        if (positions != null) {
+            positions.compute(indexKey(value), (key, indices) -> {
+                if (indices == null) {
+                    indices = new ConcurrentSkipListSet<>();
+                }
+                indices.add(index);
+                return indices;
+            });
+        }
+    }
+
+    /**
+     * Removes the record of {@code value} at {@code index} from {@link #positions}, if this list
+     * has an index.
+     */
+    private void unindex(Object value, int index) {
+        if (positions != null) {
+            positions.computeIfPresent(indexKey(value), (key, indices) -> {
+                indices.remove(index);
+                return indices.isEmpty() ? null : indices;
+            });
+        }
+    }
+
+    /**
+     * Updates {@link #positions} for an element that moved, if this list has an index. Must be
+     * called with the write lock held.
+     */
+    private void reindex(Object value, int oldIndex, int newIndex) {
+        if (positions != null) {
+            unindex(value, oldIndex);
+            index(value, newIndex);
+        }
+    }
+
+    /**
+     * Finds the first position of {@code element} at or after {@code bound}, or the last one at or
+     * before it, retrying under the read lock if elements were moved during the search.
+     */
+    private int find(Object element, int bound, boolean last) {
+        compactIfNeeded();
+        long stamp = sizeLock.tryOptimisticRead();
+        // Lazy removals take the write lock, so tombstones that are absent now stay absent until the
+        // stamp fails validation; if they're present, fall back to the read lock, which compacts
+        if (stamp != 0 && (!lazyRemoval || tombstones == null)) {
+            int position = findLocked(element, bound, last);
+            if (sizeLock.validate(stamp)) {
+                return position;
+            }
+        }
+        stamp = readLock();
+        try {
+            return findLocked(element, bound, last);
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Does the work of {@link #find(Object, int, boolean)}. Must be called with a lock held or
+     * within an optimistic read that will be validated afterward.
+     */
+    private int findLocked(Object element, int bound, boolean last) {
+        int size = this.size.get();
+        if (positions != null) {
+            ConcurrentSkipListSet<Integer> indices = positions.get(indexKey(element));
+            if (indices == null) {
+                return -1;
+            }
+            // Appends are indexed just before they're published, so ignore those beyond the size
+            Integer position = last
+                    ? indices.floor(Math.min(bound, size - 1))
+                    : indices.ceiling(bound);
+            return position == null || position >= size ? -1 : position;
+        }
+        AtomicReferenceArray<T> array = this.array;
+        int end = Math.min(size, array.length());
+        return last
+                ? scan(array, element, 0, Math.min(bound, end - 1) + 1, true)
+                : scan(array, element, bound, end, false);
+    }
+
+    /**
+     * Returns the lowest index, or the highest if {@code last} is true, from {@code from} to
+     * {@code to - 1} that holds {@code element}, or -1. Ranges of at least
+     * {@link #getParallelSearchThreshold()} slots are split across the common
+     * {@link java.util.concurrent.ForkJoinPool}.
+     */
+    private int scan(AtomicReferenceArray<T> array, Object element, int from, int to,
+            boolean last) {
+        if (to - from >= parallelSearchThreshold) {
+            return IntStream.range(0, to - from)
+                    .map(last ? i -> to - 1 - i : i -> from + i)
+                    .parallel()
+                    .filter(i -> matches(element, load(array, i)))
+                    .findFirst()
+                    .orElse(-1);
+        }
+        if (last) {
+            for (int i = to - 1; i >= from; i--) {
+                if (matches(element, load(array, i))) {
+                    return i;
+                }
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                if (matches(element, load(array, i))) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(Object element, Object value) {
+        return element == null ? value == null : element.equals(value);
+    }
+
+    /**
+     * Returns the length of the shortest range that {@link #indexOf(Object)},
+     * {@link #lastIndexOf(Object)} and their variants search in parallel.
+     */
+    public int getParallelSearchThreshold() {
+        return parallelSearchThreshold;
+    }
+
+    /**
+     * Sets the length of the shortest range that {@link #indexOf(Object)},
+     * {@link #lastIndexOf(Object)} and their variants search in parallel, using the common
+     * {@link java.util.concurrent.ForkJoinPool}. Has no effect on an indexed list.
+     */
+    public void setParallelSearchThreshold(int parallelSearchThreshold) {
+        if (parallelSearchThreshold < 1) {
+            throw new IllegalArgumentException("parallelSearchThreshold must be positive");
+        }
+        this.parallelSearchThreshold = parallelSearchThreshold;
+    }
+
+    public GrowthPolicy getGrowthPolicy() {
+        return growthPolicy;
+    }
+
+    /**
+     * Sets how long a new backing array is when the list outgrows the current one. Defaults to
+     * {@link GrowthPolicy#DOUBLING}.
+     */
+    public void setGrowthPolicy(GrowthPolicy growthPolicy) {
+        if (growthPolicy == null) {
+            throw new NullPointerException();
+        }
+        this.growthPolicy = growthPolicy;
+    }
+
+    public ListMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * Starts sending lock, resize, shift and {@link #set(int, Object)} events to
+     * {@code metricsListener}, or stops if it's null, which is the default. Events from operations
+     * already in progress may still go to the previous listener.
+     */
+    public void setMetricsListener(ListMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * Queues a listener call until the write lock is released. Must be called with the write lock
+     * held.
+     */
+    private void deferEvent(Runnable event) {
+        if (pendingEvents == null) {
+            pendingEvents = new ArrayList<>();
+        }
+        pendingEvents.add(event);
+    }
+
+    /**
+     * Must be called with the write lock held.
+     */
+    private void recordShift(int elementsMoved) {
+        ListMetricsListener listener = metricsListener;
+        if (listener != null) {
+            deferEvent(() -> listener.shifted(elementsMoved));
+        }
+    }
+
+    /**
+     * Must be called with the read lock held if {@code fastPath} is true, and the write lock held
+     * otherwise.
+     */
+    private void recordSet(boolean fastPath) {
+        ListMetricsListener listener = metricsListener;
+        if (listener == null) {
+            return;
+        }
+        if (fastPath) {
+            listener.set(true);
+        } else {
+            deferEvent(() -> listener.set(false));
+        }
+    }
+
+    /**
+     * Returns the length for a new array that's replacing one of {@code currentCapacity} and must
+     * hold {@code minCapacity} elements.
+     */
+    private int newCapacity(int currentCapacity, int minCapacity) {
+        return Math.max(minCapacity, growthPolicy.newCapacity(currentCapacity, minCapacity));
+    }
+
+    /**
+     * Grows the backing array, if necessary, so that it can hold at least {@code minCapacity}
+     * elements without growing again. Only holds the read lock, so it doesn't block readers or
+     * appends.
+     */
+    public void ensureCapacity(int minCapacity) {
+        long stamp = acquireReadLock();
+        try {
+            growConcurrently(minCapacity);
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Shrinks the backing array to the size of the list.
+     */
+    public void trimToSize() {
+        long stamp = writeLock("trimToSize");
+        try {
+            int size = this.size.get();
+            if (array.length() > size) {
+                resize(size);
+            }
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return find(o, 0, false);
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return find(o, Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Appends an element. This only holds the read lock, so concurrent appends don't serialize with
+     * each other or with readers: each one claims a slot by CAS on {@link #reserved}, fills it, and
+     * then publishes it by advancing {@link #size} once all earlier slots are published. When the
+     * array is full, appenders help copy it into a larger one; see {@link #growConcurrently(int)}.
+     */
+    @Override
+    public boolean add(T t) {
+        checkIndexable(t);
+        long stamp = readLock();
+        try {
+            while (true) {
+                AtomicReferenceArray<T> array = this.array;
+                int index = reserved.get();
+                if (index >= array.length()) {
+                    growConcurrently(index + 1);
+                } else if (reserved.compareAndSet(index, index + 1)) {
+                    int filled = 0;
+                    try {
+                        store(array, index, t);
+                        index(t, index);
+                        filled = 1;
+                    } finally {
+                        publish(array, index, 1, filled);
+                    }
+                    return true;
+                }
+            }
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Waits until all slots before {@code index} are published, then publishes {@code count} slots
+     * starting at {@code index}. Must be called with the read lock held, after claiming those slots
+     * from {@link #reserved}.
+     */
+    private void publish(int index, int count) {
+        while (!size.compareAndSet(index, index + count)) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Publishes {@code count} slots claimed at {@code index}, of which only the first
+     * {@code filled} were stored and indexed because something threw, such as an element's
+     * {@code hashCode}. The rest are published as null elements, since every later append waits
+     * for them; any element that was stored but not indexed is overwritten.
+     */
+    private void publish(AtomicReferenceArray<T> array, int index, int count, int filled) {
+        try {
+            for (int i = index + filled; i < index + count; i++) {
+                store(array, i, null);
+                index(null, i);
+            }
+        } finally {
+            publish(index, count);
+        }
+    }
+
+    /**
+     * Must be called with the write lock held.
+     */
+    private void setSize(int newSize) {
+        size.set(newSize);
+        reserved.set(newSize);
+    }
+
+    /**
+     * Memory ordering for reading a slot.
+     */
+    private enum Order {
+        VOLATILE, ACQUIRE, OPAQUE;
+
+        <T> T get(AtomicReferenceArray<T> array, int index) {
+            switch (this) {
+                case ACQUIRE:
+                    return array.getAcquire(index);
+                case OPAQUE:
+                    return array.getOpaque(index);
+                default:
+                    return array.get(index);
+            }
+        }
+    }
+
+    /**
+     * Reads a slot, following it into a larger array if it's already been copied there.
+     */
+    private static <T> T load(AtomicReferenceArray<T> array, int index) {
+        return load(array, index, Order.VOLATILE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T load(AtomicReferenceArray<T> array, int index, Order order) {
+        T value = order.get(array, index);
+        if (value instanceof Transfer && order == Order.OPAQUE) {
+            // An opaque read of the marker doesn't guarantee we'll see what was copied before it was
+            // written, so read it again with acquire semantics
+            order = Order.ACQUIRE;
+            value = order.get(array, index);
+        }
+        while (value instanceof Transfer) {
+            array = ((Transfer<T>) value).destination;
+            value = order.get(array, index);
+        }
+        return value;
+    }
+
+    /**
+     * Writes a slot, following it into a larger array if it's already been copied there.
+     *
+     * @return the previous value
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T store(AtomicReferenceArray<T> array, int index, T element) {
+        while (true) {
+            T value = array.get(index);
+            if (value instanceof Transfer) {
+                array = ((Transfer<T>) value).destination;
+            } else if (array.compareAndSet(index, value, element)) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Like {@link #store(AtomicReferenceArray, int, Object)}, but only with release semantics.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void storeRelease(AtomicReferenceArray<T> array, int index, T element) {
+        while (true) {
+            T value = array.getAcquire(index);
+            if (value instanceof Transfer) {
+                array = ((Transfer<T>) value).destination;
+            } else if (array.weakCompareAndSetRelease(index, value, element)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compares and sets a slot, following it into a larger array if it's already been copied there.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> boolean compareAndStore(AtomicReferenceArray<T> array, int index,
+            T expectedValue, T newValue, boolean weak) {
+        while (true) {
+            T value = array.get(index);
+            if (value instanceof Transfer) {
+                array = ((Transfer<T>) value).destination;
+            } else if (value != expectedValue) {
+                return false;
+            } else if (weak) {
+                return array.weakCompareAndSetVolatile(index, expectedValue, newValue);
+            } else if (array.compareAndSet(index, expectedValue, newValue)) {
+                return true;
+            }
+            // Otherwise the slot changed since we read it, maybe because it was just copied
+        }
+    }
+
+    /**
+     * Grows the array until it has at least {@code minCapacity} slots, in the style of
+     * {@link java.util.concurrent.ConcurrentHashMap}'s resizing: the thread that finds the array
+     * too small starts a {@link Transfer}, every other thread that needs to grow it helps copy
+     * chunks, and readers keep using the old array in the meantime. Must be called with the read
+     * lock held.
+     */
+    private void growConcurrently(int minCapacity) {
+        AtomicReferenceArray<T> array;
+        while ((array = this.array).length() < minCapacity) {
+            Transfer<T> transfer = this.transfer.get();
+            if (transfer == null) {
+                Transfer<T> newTransfer = new Transfer<>(array,
+                        newCapacity(array.length(), minCapacity));
+                if (!this.transfer.compareAndSet(null, newTransfer)) {
+                    continue;
+                }
+                if (this.array != array) {
+                    // Another transfer finished after we read the array, so it's already been
+                    // copied, and we mustn't copy it again
+                    this.transfer.compareAndSet(newTransfer, null);
+                    continue;
+                }
+                try {
+                    newTransfer.allocate();
+                } catch (RuntimeException | Error e) {
+                    // Let another thread try, perhaps once some memory has been freed
+                    this.transfer.compareAndSet(newTransfer, null);
+                    throw e;
+                }
+                transfer = newTransfer;
+                if (array.length() == 0) {
+                    finishTransfer(transfer);
+                    continue;
+                }
+            } else if (transfer.source != array || transfer.destination == null) {
+                // Either the last chunk was just copied, but the transfer isn't cleared yet, or the
+                // thread that started it is still allocating the destination
+                Thread.yield();
+                continue;
+            }
+            helpTransfer(transfer);
+            if (this.array == array) {
+                // Other threads are still copying their chunks
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Copies chunks until there are none left to claim. Whoever copies the last slot installs the
+     * new array.
+     */
+    private void helpTransfer(Transfer<T> transfer) {
+        int end;
+        while ((end = transfer.nextChunkEnd.get()) > 0) {
+            int start = Math.max(0, end - transfer.stride);
+            if (transfer.nextChunkEnd.compareAndSet(end, start)) {
+                for (int i = start; i < end; i++) {
+                    transfer.move(i);
+                }
+                if (transfer.remaining.addAndGet(start - end) == 0) {
+                    finishTransfer(transfer);
+                }
+            }
+        }
+    }
+
+    private void finishTransfer(Transfer<T> transfer) {
+        // Must replace the array before clearing the transfer, so that nobody starts another
+        // transfer out of the old array. If the source was already replaced, this transfer was
+        // started from a stale array and then abandoned, so its destination mustn't be installed.
+        boolean installed = ARRAY.compareAndSet(this, transfer.source, transfer.destination);
+        this.transfer.compareAndSet(transfer, null);
+        if (installed) {
+            int oldCapacity = transfer.source.length();
+            int newCapacity = transfer.destination.length();
+            ListMetricsListener listener = metricsListener;
+            if (listener != null) {
+                listener.resized(oldCapacity, newCapacity, oldCapacity);
+            }
+            if (transfer.resizeEvent != null) {
+                FlightRecorderEvents.commitResize(transfer.resizeEvent, oldCapacity, newCapacity,
+                        oldCapacity);
+            }
+        }
+    }
+
+    /**
+     * Replaces the array with one at least {@code minCapacity} long, as chosen by the
+     * {@link GrowthPolicy}. Must be called with the write lock held.
+     */
+    private void grow(int minCapacity) {
+        resize(newCapacity(array.length(), minCapacity));
+    }
+
+    /**
+     * Replaces the array with a copy of the given length, which must be at least the size. Must be
+     * called with the write lock held.
+     */
+    private void resize(int length) {
+        Object event = JFR_AVAILABLE ? FlightRecorderEvents.beginResize() : null;
+        AtomicReferenceArray<T> oldArray = array;
+        AtomicReferenceArray<T> newArray = new AtomicReferenceArray<>(length);
+        int end = Math.min(length, oldArray.length());
+        for (int i = 0; i < end; i++) {
+            newArray.set(i, oldArray.get(i));
+        }
+        array = newArray;
+        ListMetricsListener listener = metricsListener;
+        if (listener != null) {
+            deferEvent(() -> listener.resized(oldArray.length(), length, end));
+        }
+        if (event != null) {
+            FlightRecorderEvents.commitResize(event, oldArray.length(), length, end);
+        }
+    }
+
+    /**
+     * Must be called with the write lock held.
+     */
+    private void appendLocked(T element) {
+        int size = this.size.get();
+        if (array.length() <= size) {
+            grow(size + 1);
+        }
+        array.set(size, element);
+        index(element, size);
+        setSize(size + 1);
+    }
+
+    /**
+     * Returns the lowest index from {@code from} to {@code to - 1} that holds {@code element}, or -1.
+     * Must be called with a lock held, since {@link StampedLock} isn't reentrant and so
+     * {@link #indexOf(Object)} could deadlock.
+     */
+    private int indexOfLocked(Object element, int from, int to) {
+        if (positions != null) {
+            ConcurrentSkipListSet<Integer> indices = positions.get(indexKey(element));
+            Integer position = indices == null ? null : indices.ceiling(from);
+            return position == null || position >= to ? -1 : position;
+        }
+        return scan(array, element, from, to, false);
+    }
+
+    /**
+     * Removes from {@code candidates} everything in slots {@code from} through {@code to - 1}. Must
+     * be called with a lock held.
+     */
+    private void removeContainedLocked(Set<?> candidates, int from, int to) {
+        if (positions != null) {
+            candidates.removeIf(candidate -> indexOfLocked(candidate, from, to) >= 0);
+            return;
+        }
+        AtomicReferenceArray<T> array = this.array;
+        for (int i = from; i < to && !candidates.isEmpty(); i++) {
+            candidates.remove(load(array, i));
+        }
+    }
+
+    @Override
+    public void add(int index, T element) {
+        long stamp = writeLock("add(int)");
+        try {
+            int size = this.size.get();
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (array.length() <= size) {
+                grow(size + 1);
+            }
+            preserve(index, size + 1);
+            recordShift(size - index);
+            for (int i = size; i > index; i--) {
+                T value = array.get(i - 1);
+                array.set(i, value);
+                reindex(value, i - 1, i);
+            }
+            array.set(index, element);
+            index(element, index);
+            setSize(size + 1);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes an element, shifting all the following ones, unless this list was created with lazy
+     * removal; see {@link #AtomicReferenceArrayList(int, boolean, boolean)}.
+     */
+    @Override
+    public T remove(int index) {
+        if (lazyRemoval) {
+            return removeLazily(index);
+        }
+        long stamp = writeLock("remove(int)");
+        try {
+            if (index < 0 || index >= size.get()) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            T removed = array.get(index);
+            removeRangeLocked(index, index + 1);
+            return removed;
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Marks the slot holding {@code index} as a tombstone. Holds the write lock, but only for time
+     * logarithmic in the size, unless a quarter of the slots are then tombstones, in which case it
+     * compacts the list.
+     */
+    private T removeLazily(int index) {
+        long stamp = acquireWriteLock("remove(int)");
+        try {
+            int size = this.size.get();
+            Tombstones tombstones = this.tombstones;
+            int liveSize = tombstones == null ? size : size - tombstones.count;
+            if (index < 0 || index >= liveSize) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            if (tombstones == null) {
+                tombstones = new Tombstones(size);
+            }
+            int slot = tombstones.select(index);
+            T removed = array.get(slot);
+            tombstones.add(slot);
+            this.tombstones = tombstones;
+            if (tombstones.count > size >>> 2) {
+                compactLocked();
+            }
+            return removed;
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Reclaims the slots of any elements removed lazily, moving each remaining element at most
+     * once. Called automatically when needed, but may also be called from a background thread, so
+     * that {@link #get(int)} doesn't have to translate indices and other methods don't have to wait
+     * for compaction.
+     */
+    public void compact() {
+        long stamp = acquireWriteLock("compact");
+        try {
+            compactLocked();
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Must be called with the write lock held.
+     */
+    private void compactLocked() {
+        Tombstones tombstones = this.tombstones;
+        if (tombstones != null) {
+            removeMarkedLocked(BitSet.valueOf(tombstones.words));
+            this.tombstones = null;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (lazyRemoval && tombstones != null) {
+            compact();
+        }
+    }
+
+    /**
+     * Takes the read lock without compacting, timing the wait if there's a listener.
+     */
+    private long acquireReadLock() {
+        ListMetricsListener listener = metricsListener;
+        if (listener == null) {
+            return sizeLock.readLock();
+        }
+        long waitNanos = 0;
+        long stamp = sizeLock.tryReadLock();
+        if (stamp == 0) {
+            long start = System.nanoTime();
+            stamp = sizeLock.readLock();
+            waitNanos = Math.max(1, System.nanoTime() - start);
+        }
+        listener.lockAcquired(false, waitNanos);
+        return stamp;
+    }
+
+    /**
+     * Takes the write lock without compacting, timing the wait if there's a listener or the write
+     * lock event is being recorded. Must be released with {@link #unlockWrite(long)}.
+     *
+     * @param operation the name of the method taking the lock, for the write lock event
+     */
+    private long acquireWriteLock(String operation) {
+        ListMetricsListener listener = metricsListener;
+        Object event = JFR_AVAILABLE ? FlightRecorderEvents.beginWriteLock(operation) : null;
+        if (listener == null && event == null) {
+            return sizeLock.writeLock();
+        }
+        long waitNanos = 0;
+        long stamp = sizeLock.tryWriteLock();
+        if (stamp == 0) {
+            long start = System.nanoTime();
+            stamp = sizeLock.writeLock();
+            waitNanos = Math.max(1, System.nanoTime() - start);
+        }
+        if (listener != null) {
+            long wait = waitNanos;
+            deferEvent(() -> listener.lockAcquired(true, wait));
+        }
+        if (event != null) {
+            FlightRecorderEvents.writeLockAcquired(event, waitNanos);
+            writeLockEvent = event;
+        }
+        return stamp;
+    }
+
+    /**
+     * Releases the write lock, then ends its write lock event if there is one and makes the
+     * listener calls that were deferred while it was held.
+     */
+    private void unlockWrite(long stamp) {
+        Object event = writeLockEvent;
+        List<Runnable> pendingEvents = this.pendingEvents;
+        if (event == null && pendingEvents == null) {
+            sizeLock.unlockWrite(stamp);
+            return;
+        }
+        writeLockEvent = null;
+        this.pendingEvents = null;
+        int size = this.size.get();
+        sizeLock.unlockWrite(stamp);
+        if (event != null) {
+            FlightRecorderEvents.commitWriteLock(event, size);
+        }
+        if (pendingEvents != null) {
+            for (Runnable pendingEvent : pendingEvents) {
+                pendingEvent.run();
+            }
+        }
+    }
+
+    /**
+     * Takes the read lock, first compacting if there are any tombstones, so that slots and indices
+     * match for as long as it's held.
+     */
+    private long readLock() {
+        long stamp = acquireReadLock();
+        while (lazyRemoval && tombstones != null) {
+            sizeLock.unlockRead(stamp);
+            compact();
+            stamp = acquireReadLock();
+        }
+        return stamp;
+    }
+
+    /**
+     * Takes the write lock, and compacts if there are any tombstones, so that slots and indices
+     * match for as long as it's held.
+     */
+    private long writeLock(String operation) {
+        long stamp = acquireWriteLock(operation);
+        compactLocked();
+        return stamp;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        long stamp = writeLock("remove(Object)");
+        try {
+            int index = indexOfLocked(o, 0, size.get());
+            if (index < 0) {
+                return false;
+            }
+            removeRangeLocked(index, index + 1);
+            return true;
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        long stamp = writeLock("removeRange");
+        try {
+            if (fromIndex < 0 || toIndex > size.get() || fromIndex > toIndex) {
+                throw new IndexOutOfBoundsException();
+            }
+            removeRangeLocked(fromIndex, toIndex);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the elements from {@code fromIndex} to {@code toIndex - 1}, shifting each following
+     * element once. Must be called with the write lock held.
+     */
+    private void removeRangeLocked(int fromIndex, int toIndex) {
+        int size = this.size.get();
+        int count = toIndex - fromIndex;
+        if (count == 0) {
+            return;
+        }
+        preserve(fromIndex, size);
+        for (int i = fromIndex; i < toIndex; i++) {
+            unindex(array.get(i), i);
+        }
+        for (int i = toIndex; i < size; i++) {
+            T value = array.get(i);
+            array.set(i - count, value);
+            reindex(value, i, i - count);
+        }
+        for (int i = size - count; i < size; i++) {
+            array.set(i, null);
+        }
+        recordShift(size - toIndex);
+        setSize(size - count);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        Collection<?> toRemove = lockFreeView(c);
+        long stamp = writeLock("removeAll");
+        try {
+            return removeIfLocked(toRemove::contains);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Collection<?> toRetain = lockFreeView(c);
+        long stamp = writeLock("retainAll");
+        try {
+            return removeIfLocked(value -> !toRetain.contains(value));
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes every element that matches {@code filter} while holding the write lock once, moving
+     * each remaining element at most once. The filter must not access this list.
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        if (filter == null) {
+            throw new NullPointerException();
+        }
+        long stamp = writeLock("removeIf");
+        try {
+            return removeIfLocked(filter);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces every element while holding the write lock once, so that no other write is
+     * interleaved. The operator must not access this list.
+     */
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        if (operator == null) {
+            throw new NullPointerException();
+        }
+        long stamp = writeLock("replaceAll");
+        try {
+            int size = this.size.get();
+            preserve(0, size);
+            for (int i = 0; i < size; i++) {
+                T value = array.get(i);
+                T replacement = operator.apply(value);
+                array.set(i, replacement);
+                if (positions != null) {
+                    unindex(value, i);
+                    index(replacement, i);
+                }
+            }
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Sorts a copy of the elements and writes it back while holding the write lock once. The
+     * comparator must not access this list.
+     */
     @Override
-    public AtomicReferenceArrayList<T> clone() {
-        return (AtomicReferenceArrayList<T>) new AtomicReferenceArrayList<>(toArray());
+    @SuppressWarnings("unchecked")
+    public void sort(Comparator<? super T> c) {
+        long stamp = writeLock("sort");
+        try {
+            int size = this.size.get();
+            Object[] sorted = new Object[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = array.get(i);
+            }
+            Arrays.sort(sorted, (Comparator<Object>) c);
+            preserve(0, size);
+            for (int i = 0; i < size; i++) {
+                T value = array.getAndSet(i, (T) sorted[i]);
+                if (positions != null && !matches(value, sorted[i])) {
+                    unindex(value, i);
+                    index(sorted[i], i);
+                }
+            }
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
-    protected AtomicReferenceArray<T> array;
-    private final ReadWriteLock sizeLock = new ReentrantReadWriteLock();
-    private final AtomicInteger size = new AtomicInteger(0);
+    /**
+     * Returns the backing array and the number of its slots that hold elements, at a moment when
+     * there were no tombstones, so that each slot's index is its element's index. Used by the
+     * methods that then read the array without locking.
+     */
+    private Slots slots() {
+        compactIfNeeded();
+        long stamp = sizeLock.tryOptimisticRead();
+        // Lazy removals and clearing both take the write lock, so if the stamp validates, there were
+        // no tombstones throughout, and the array is at least as long as the size read before it
+        if (stamp != 0 && (!lazyRemoval || tombstones == null)) {
+            int size = this.size.get();
+            AtomicReferenceArray<T> array = this.array;
+            if (sizeLock.validate(stamp)) {
+                return new Slots(array, Math.min(size, array.length()));
+            }
+        }
+        stamp = readLock();
+        try {
+            AtomicReferenceArray<T> array = this.array;
+            return new Slots(array, Math.min(size.get(), array.length()));
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
 
-    protected AtomicReferenceArrayList(AtomicReferenceArray<T> array) {
-        this.array = array;
+    /**
+     * Passes each element below the current size to {@code action} without locking, reading it from
+     * the backing array as {@link #iterator()} does, so the action may safely modify this list.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        Slots slots = slots();
+        for (int i = 0; i < slots.end; i++) {
+            action.accept(load(slots.array, i));
+        }
     }
 
-    public AtomicReferenceArrayList() {
-        this(1);
+    /**
+     * Returns a collection with the same {@code contains} behavior as {@code c} that's safe to query
+     * while holding the write lock. Since {@link StampedLock} isn't reentrant, {@code c} itself might
+     * deadlock if it's this list or a view of it.
+     */
+    private static Collection<?> lockFreeView(Collection<?> c) {
+        return c instanceof Set ? c : new HashSet<>(c);
     }
 
-    public AtomicReferenceArrayList(int size) {
-        this(new AtomicReferenceArray<>(size));
+    /**
+     * Removes every element that matches {@code filter}, moving each remaining element at most once.
+     * The filter is applied to every element before anything is moved, so that the list is unchanged
+     * if it throws. Must be called with the write lock held.
+     *
+     * @return whether anything was removed
+     */
+    private boolean removeIfLocked(Predicate<? super T> filter) {
+        int size = this.size.get();
+        BitSet removed = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (filter.test(array.get(i))) {
+                removed.set(i);
+            }
+        }
+        if (removed.isEmpty()) {
+            return false;
+        }
+        removeMarkedLocked(removed);
+        return true;
     }
 
-    @SafeVarargs
-    public AtomicReferenceArrayList(T... elements) {
-        this(new AtomicReferenceArray<>(elements));
-        size.set(elements.length);
+    /**
+     * Removes the elements in the slots marked in {@code removed}, moving each remaining element at
+     * most once. Must be called with the write lock held.
+     */
+    private void removeMarkedLocked(BitSet removed) {
+        int size = this.size.get();
+        preserve(removed.nextSetBit(0), size);
+        int kept = 0;
+        int moved = 0;
+        for (int i = 0; i < size; i++) {
+            T value = array.get(i);
+            if (removed.get(i)) {
+                unindex(value, i);
+            } else {
+                if (kept != i) {
+                    array.set(kept, value);
+                    reindex(value, i, kept);
+                    moved++;
+                }
+                kept++;
+            }
+        }
+        for (int i = kept; i < size; i++) {
+            array.set(i, null);
+        }
+        recordShift(moved);
+        setSize(kept);
     }
 
+    /**
+     * Copies the elements while holding the read lock once, so that, unlike with the iterator, no
+     * element is skipped or repeated because of a concurrent insertion or removal. Each element is
+     * read once; a concurrent {@link #set(int, Object)} is reflected or not as it would be by
+     * {@link #get(int)}. For a copy that ignores concurrent sets too, call this on a
+     * {@link #snapshot()}.
+     */
     @Override
-    public T set(final int index, T element) {
-        sizeLock.readLock().lock();
+    public Object[] toArray() {
+        long stamp = readLock();
         try {
-            if (index < array.length()) {
-                size.updateAndGet(oldLength -> Math.max(oldLength, index + 1));
-                return array.getAndSet(index, element);
-            }
+            int size = this.size.get();
+            Object[] result = new Object[size];
+            copyLocked(0, size, result);
+            return result;
         } finally {
-            sizeLock.readLock().unlock();
+            sizeLock.unlockRead(stamp);
         }
-        // If we've gotten to here, check whether we're expanding the list
-        sizeLock.writeLock().lock();
+    }
+
+    /**
+     * Copies the elements as {@link #toArray()} does, into {@code a} if it's long enough, in which
+     * case the slot after the last element is set to null, or otherwise into a new array of the
+     * same type.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> E[] toArray(E[] a) {
+        long stamp = readLock();
         try {
-            if (array.length() <= index) {
-                AtomicReferenceArray<T> oldArray = array;
-                array = new AtomicReferenceArray<>(Math.max(index + 1, array.length() * 2));
-                for (int i = 0; i < oldArray.length(); i++) {
-                    array.set(i, oldArray.get(i));
-                }
+            int size = this.size.get();
+            E[] result = a.length >= size
+                    ? a
+                    : (E[]) Array.newInstance(a.getClass().getComponentType(), size);
+            copyLocked(0, size, result);
+            if (result.length > size) {
+                result[size] = null;
             }
-            return array.getAndSet(index, element);
+            return result;
         } finally {
-            sizeLock.writeLock().unlock();
+            sizeLock.unlockRead(stamp);
         }
     }
 
-    @Override
-    public boolean add(T t) {
-        sizeLock.writeLock().lock();
+    /**
+     * Copies the elements from {@code from} to {@code to - 1} into the start of {@code dest},
+     * consistently in the same sense as {@link #toArray()}, for callers that read a window of the
+     * list at a time.
+     *
+     * @throws IndexOutOfBoundsException if {@code from} is negative, {@code to} is greater than the
+     *     size, {@code from} is greater than {@code to}, or {@code dest} is shorter than the range
+     */
+    public void getRange(int from, int to, T[] dest) {
+        long stamp = readLock();
         try {
-            return super.add(t);
+            if (from < 0 || to > size.get() || from > to) {
+                throw new IndexOutOfBoundsException(
+                        "from: " + from + ", to: " + to + ", size: " + size.get());
+            }
+            if (dest.length < to - from) {
+                throw new IndexOutOfBoundsException(
+                        "Range of " + (to - from) + " doesn't fit in " + dest.length);
+            }
+            copyLocked(from, to, dest);
         } finally {
-            sizeLock.writeLock().unlock();
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Copies the elements from {@code from} to {@code to - 1}, which must be no more than the size,
+     * into the start of {@code dest}. Must be called with a lock held.
+     */
+    private void copyLocked(int from, int to, Object[] dest) {
+        AtomicReferenceArray<T> array = this.array;
+        for (int i = from; i < to; i++) {
+            dest[i - from] = load(array, i);
         }
     }
 
+    /**
+     * Returns a weakly consistent iterator, in the style of those of
+     * {@link java.util.concurrent.ConcurrentHashMap}. It never locks and never throws
+     * {@link java.util.ConcurrentModificationException}: it covers the elements below the size at
+     * the time it was created, and reads each one from the backing array when it reaches it.
+     * Elements appended afterward aren't returned, and elements shifted by a concurrent insertion
+     * or removal may be skipped or returned twice. It doesn't support {@code remove}.
+     */
     @Override
-    public void add(int index, T element) {
-        sizeLock.writeLock().lock();
+    public Iterator<T> iterator() {
+        return new Itr(0);
+    }
+
+    /**
+     * Returns a weakly consistent list iterator with the same guarantees as {@link #iterator()}. It
+     * supports {@code set}, which writes through to the list by index, but not {@code remove} or
+     * {@code add}.
+     */
+    @Override
+    public ListIterator<T> listIterator() {
+        return new Itr(0);
+    }
+
+    /**
+     * Returns a weakly consistent list iterator with the same guarantees as {@link #iterator()},
+     * starting at {@code index}.
+     */
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        return new Itr(index);
+    }
+
+    /**
+     * Returns a spliterator over the elements below the size at the time it's created, which reads
+     * each element from the backing array without locking, as {@link #iterator()} does. It splits
+     * evenly by index range. Because its range is fixed when it's created, its size is exact even
+     * though the list may be modified concurrently, so it reports {@link Spliterator#SIZED} and
+     * {@link Spliterator#SUBSIZED} as well as {@link Spliterator#CONCURRENT}.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        Slots slots = slots();
+        AtomicReferenceArray<T> array = slots.array;
+        return new IndexRangeSpliterator<>(index -> load(array, index), 0, slots.end,
+                Spliterator.CONCURRENT);
+    }
+
+    /**
+     * Returns an immutable view of the list as it is now, in constant time. The view shares the
+     * backing array until a slot below its size is overwritten; only then is the surrounding chunk of
+     * {@code 1 << SNAPSHOT_CHUNK_SHIFT} slots copied into the view. So taking a snapshot costs
+     * almost nothing, and a write costs at most one extra chunk copy per snapshot. Once a newer
+     * snapshot is taken, older ones read any chunk they haven't saved from the newer one, so an old
+     * snapshot kept alongside many newer ones gets slower to read. Reads of the view don't block
+     * unless they race with a write that shifts elements, in which case they wait for the read lock
+     * as {@link #get(int)} does.
+     */
+    public List<T> snapshot() {
+        long stamp = writeLock("snapshot");
         try {
-            if (index < size()) {
-                for (int i = index; i < size.getAndIncrement(); i++) {
-                    array.set(i + 1, array.get(i));
-                }
+            Snapshot snapshot = new Snapshot(size.get());
+            WeakReference<Snapshot> previousRef = latestSnapshot;
+            Snapshot previous = previousRef == null ? null : previousRef.get();
+            if (previous != null) {
+                previous.newer = snapshot;
             }
-            set(index, element);
+            latestSnapshot = new WeakReference<>(snapshot);
+            return snapshot;
         } finally {
-            sizeLock.writeLock().unlock();
+            unlockWrite(stamp);
         }
     }
 
-    @Override
-    public T remove(int index) {
-        sizeLock.writeLock().lock();
-        try {
-            int size = size();
-            if (index >= size) {
+    /**
+     * Saves into the latest snapshot, if any, each chunk that overlaps slots {@code from} through
+     * {@code to - 1} and hasn't been saved yet. Must be called with a lock held, before any of
+     * those slots are overwritten.
+     */
+    private void preserve(int from, int to) {
+        WeakReference<Snapshot> snapshotRef = latestSnapshot;
+        if (snapshotRef != null) {
+            Snapshot snapshot = snapshotRef.get();
+            if (snapshot != null) {
+                snapshot.preserve(from, to);
+            }
+        }
+    }
+
+    private final class Snapshot extends AbstractList<T> implements RandomAccess {
+        private final int size;
+        /**
+         * Chunks saved before the list overwrote them; null until the first one is saved.
+         */
+        private final AtomicReference<AtomicReferenceArray<Object[]>> chunks
+                = new AtomicReference<>();
+        /**
+         * The next snapshot taken after this one. Once set, this snapshot saves no more chunks,
+         * so any chunk it hasn't saved is the same as in the newer snapshot.
+         */
+        volatile Snapshot newer;
+
+        Snapshot(int size) {
+            this.size = size;
+        }
+
+        void preserve(int from, int to) {
+            to = Math.min(to, size);
+            if (from >= to) {
+                return;
+            }
+            AtomicReferenceArray<Object[]> chunks = this.chunks.get();
+            if (chunks == null) {
+                this.chunks.compareAndSet(null,
+                        new AtomicReferenceArray<>(((size - 1) >>> SNAPSHOT_CHUNK_SHIFT) + 1));
+                chunks = this.chunks.get();
+            }
+            AtomicReferenceArray<T> array = AtomicReferenceArrayList.this.array;
+            for (int chunk = from >>> SNAPSHOT_CHUNK_SHIFT; chunk <= (to - 1) >>> SNAPSHOT_CHUNK_SHIFT;
+                    chunk++) {
+                if (chunks.get(chunk) == null) {
+                    // If another thread saves the chunk first, our copy may include its write, but
+                    // then our compare-and-set fails
+                    int start = chunk << SNAPSHOT_CHUNK_SHIFT;
+                    Object[] copy = new Object[Math.min(size - start, SNAPSHOT_CHUNK_MASK + 1)];
+                    for (int i = 0; i < copy.length; i++) {
+                        copy[i] = load(array, start + i);
+                    }
+                    chunks.compareAndSet(chunk, null, copy);
+                }
+            }
+        }
+
+        private Object[] savedChunk(int chunk) {
+            AtomicReferenceArray<Object[]> chunks = this.chunks.get();
+            return chunks == null || chunk >= chunks.length() ? null : chunks.get(chunk);
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size) {
                 throw new ArrayIndexOutOfBoundsException();
             }
-            T removed = get(index);
-            for (int i = index; i < size - 1; i++) {
-                array.set(i, array.get(i + 1));
+            long stamp = sizeLock.tryOptimisticRead();
+            if (stamp != 0) {
+                T value = read(index);
+                if (sizeLock.validate(stamp)) {
+                    return value;
+                }
             }
-            this.size.decrementAndGet();
-            return removed;
-        } finally {
-            sizeLock.writeLock().unlock();
+            stamp = acquireReadLock();
+            try {
+                return read(index);
+            } finally {
+                sizeLock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Must be called with a lock held or within an optimistic read that will be validated
+         * afterward.
+         */
+        @SuppressWarnings("unchecked")
+        private T read(int index) {
+            int chunk = index >>> SNAPSHOT_CHUNK_SHIFT;
+            Snapshot snapshot = this;
+            Snapshot newer;
+            while ((newer = snapshot.newer) != null) {
+                Object[] saved = snapshot.savedChunk(chunk);
+                if (saved != null) {
+                    return (T) saved[index & SNAPSHOT_CHUNK_MASK];
+                }
+                snapshot = newer;
+            }
+            AtomicReferenceArray<T> array = AtomicReferenceArrayList.this.array;
+            T value = index < array.length() ? load(array, index) : null;
+            // Writers save a chunk before changing it, so if it's still unsaved after we've read the
+            // slot, what we read is unchanged since the snapshot was taken
+            Object[] saved = snapshot.savedChunk(chunk);
+            return saved == null ? value : (T) saved[index & SNAPSHOT_CHUNK_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return new IndexRangeSpliterator<>(this::get, 0, size, Spliterator.IMMUTABLE);
+        }
+    }
+
+    /** The result of {@link #slots()}. */
+    private final class Slots {
+        final AtomicReferenceArray<T> array;
+        final int end;
+
+        Slots(AtomicReferenceArray<T> array, int end) {
+            this.array = array;
+            this.end = end;
+        }
+    }
+
+    private final class Itr implements ListIterator<T> {
+        private final AtomicReferenceArray<T> array;
+        private final int size;
+        private int cursor;
+        /** Index of the element last returned by {@link #next()} or {@link #previous()}, or -1. */
+        private int lastReturned = -1;
+
+        Itr(int index) {
+            Slots slots = slots();
+            array = slots.array;
+            size = slots.end;
+            if (index < 0 || index > this.size) {
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+            cursor = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @Override
+        public T next() {
+            if (cursor >= size) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = cursor;
+            return load(array, cursor++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        @Override
+        public T previous() {
+            if (cursor <= 0) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = --cursor;
+            return load(array, cursor);
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Replaces the element last returned, by index, so it may replace a different element if
+         * a concurrent insertion or removal shifted that one.
+         */
+        @Override
+        public void set(T t) {
+            if (lastReturned < 0) {
+                throw new IllegalStateException();
+            }
+            AtomicReferenceArrayList.this.set(lastReturned, t);
+        }
+
+        @Override
+        public void add(T t) {
+            throw new UnsupportedOperationException();
         }
     }
 
+    /**
+     * Reads without locking, and only falls back to the read lock if the write lock was taken in
+     * the meantime. Appends and {@link #set(int, Object)} within bounds only take the read lock, so
+     * they never force the fallback.
+     */
     @Override
     public T get(int index) {
-        sizeLock.readLock().lock();
+        return get(index, Order.VOLATILE);
+    }
+
+    /**
+     * Like {@link #get(int)}, but reads the element with acquire semantics, as
+     * {@link AtomicReferenceArray#getAcquire(int)} does. The size is still read with volatile
+     * semantics.
+     */
+    public T getAcquire(int index) {
+        return get(index, Order.ACQUIRE);
+    }
+
+    /**
+     * Like {@link #get(int)}, but reads the element in opaque mode, as
+     * {@link AtomicReferenceArray#getOpaque(int)} does. The size is still read with volatile
+     * semantics.
+     */
+    public T getOpaque(int index) {
+        return get(index, Order.OPAQUE);
+    }
+
+    private T get(int index, Order order) {
+        long stamp = sizeLock.tryOptimisticRead();
+        if (stamp != 0) {
+            int size = this.size.get();
+            AtomicReferenceArray<T> array = this.array;
+            Tombstones tombstones = lazyRemoval ? this.tombstones : null;
+            if (tombstones != null) {
+                size -= tombstones.count;
+            }
+            if (index >= size || (tombstones != null && index < 0)) {
+                if (sizeLock.validate(stamp)) {
+                    throw new ArrayIndexOutOfBoundsException();
+                }
+            } else {
+                int slot = tombstones == null ? index : tombstones.select(index);
+                if (slot < array.length()) {
+                    T value = load(array, slot, order);
+                    if (sizeLock.validate(stamp)) {
+                        return value;
+                    }
+                }
+            }
+        }
+        stamp = acquireReadLock();
         try {
-            if (index >= size.get()) {
+            Tombstones tombstones = this.tombstones;
+            if (index >= liveSize()) {
                 throw new ArrayIndexOutOfBoundsException();
             }
-            return array.get(index);
+            if (tombstones == null) {
+                return load(array, index, order);
+            }
+            if (index < 0) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            return load(array, tombstones.select(index), order);
         } finally {
-            sizeLock.readLock().unlock();
+            sizeLock.unlockRead(stamp);
         }
     }
 
+    /**
+     * Doesn't lock, since {@link #size} is only ever updated atomically, unless this list was
+     * created with lazy removal, in which case it reads optimistically and only falls back to the
+     * read lock if a removal overlapped.
+     */
     @Override
     public int size() {
-        sizeLock.readLock().lock();
-        try {
+        if (!lazyRemoval) {
             return size.get();
+        }
+        long stamp = sizeLock.tryOptimisticRead();
+        if (stamp != 0) {
+            int size = liveSize();
+            if (sizeLock.validate(stamp)) {
+                return size;
+            }
+        }
+        stamp = acquireReadLock();
+        try {
+            return liveSize();
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of slots in use that aren't tombstones. Must be called with a lock held
+     * or within an optimistic read that will be validated afterward.
+     */
+    private int liveSize() {
+        Tombstones tombstones = this.tombstones;
+        int size = this.size.get();
+        return tombstones == null ? size : size - tombstones.count;
+    }
+
+    /**
+     * Appends all the elements of {@code c} at once: the whole block of slots is claimed with one
+     * update to {@link #reserved}, the array grows at most once to fit it, and the block is
+     * published with one update to {@link #size}. Like {@link #add(Object)}, this only holds the
+     * read lock, so readers aren't blocked while the elements are copied.
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        Object[] elements = c.toArray();
+        int count = elements.length;
+        if (count == 0) {
+            return false;
+        }
+        for (Object element : elements) {
+            checkIndexable(element);
+        }
+        long stamp = readLock();
+        try {
+            // Grow before claiming the slots, so that nothing but filling them can fail in between
+            AtomicReferenceArray<T> array;
+            int index;
+            do {
+                array = this.array;
+                index = reserved.get();
+                if (array.length() - index < count) {
+                    growConcurrently(index + count);
+                    index = -1;
+                }
+            } while (index < 0 || !reserved.compareAndSet(index, index + count));
+            int filled = 0;
+            try {
+                for (; filled < count; filled++) {
+                    @SuppressWarnings("unchecked") T element = (T) elements[filled];
+                    store(array, index + filled, element);
+                    index(element, index + filled);
+                }
+            } finally {
+                publish(array, index, count, filled);
+            }
+            return true;
         } finally {
-            sizeLock.readLock().unlock();
+            sizeLock.unlockRead(stamp);
         }
     }
 
-    public boolean addAll(List<? extends T> ts) {
-        for (T t : ts) {
-            add(t);
+    /**
+     * Inserts all the elements of {@code c} while holding the write lock once, growing the array at
+     * most once and shifting the following elements only once.
+     */
+    @Override
+    public boolean addAll(int index, Collection<? extends T> c) {
+        Object[] elements = c.toArray();
+        int count = elements.length;
+        long stamp = writeLock("addAll(int)");
+        try {
+            int size = this.size.get();
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (count == 0) {
+                return false;
+            }
+            if (array.length() < size + count) {
+                grow(size + count);
+            }
+            preserve(index, size + count);
+            recordShift(size - index);
+            for (int i = size - 1; i >= index; i--) {
+                T value = array.get(i);
+                array.set(i + count, value);
+                reindex(value, i, i + count);
+            }
+            for (int i = 0; i < count; i++) {
+                @SuppressWarnings("unchecked") T element = (T) elements[i];
+                array.set(index + i, element);
+                index(element, index + i);
+            }
+            setSize(size + count);
+            return true;
+        } finally {
+            unlockWrite(stamp);
         }
-        return true;
     }
 
     /**
@@ -151,49 +2137,87 @@ public class AtomicReferenceArrayList<T> extends AbstractList<T>
      * this list, in the order that they are returned by the
      * specified collection's iterator.
      *
-     * @param c collection containing elements to be added to this list
+     * <p>Runs in time linear in the sizes of the list and the collection: the collection's elements
+     * are hashed before any lock is taken, and the list is scanned once against them. The scan
+     * holds the write lock, since {@link #set(int, Object)} only takes the read lock and could
+     * otherwise write a candidate into a slot that had already been scanned.
+     *
+     * @param addFrom collection containing elements to be added to this list
      * @return the number of elements added
      * @throws NullPointerException if the specified collection is null
      * @see #addIfAbsent(Object)
      */
-    public int addAllAbsent(List<T> addFrom) {
-        sizeLock.writeLock().lock();
+    public int addAllAbsent(Collection<? extends T> addFrom) {
+        Set<T> candidates = new LinkedHashSet<>(addFrom);
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        long stamp = writeLock("addAllAbsent");
         try {
-            int added = 0;
-            for (T element : addFrom) {
-                if (!contains(element) && add(element)) {
-                    added++;
-                }
+            removeContainedLocked(candidates, 0, size.get());
+            for (T element : candidates) {
+                appendLocked(element);
             }
-            return added;
+            return candidates.size();
         } finally {
-            sizeLock.writeLock().unlock();
+            unlockWrite(stamp);
         }
     }
 
     /**
-     * Appends the element, if not present.
+     * Appends the element, if not present. The scan holds the write lock, for the same reason as in
+     * {@link #addAllAbsent(Collection)}.
      *
-     * @param e element to be added to this list, if absent
+     * @param element element to be added to this list, if absent
      * @return {@code true} if the element was added
      */
     public boolean addIfAbsent(T element) {
-        sizeLock.writeLock().lock();
+        long stamp = writeLock("addIfAbsent");
         try {
-            return !contains(element) && add(element);
+            if (indexOfLocked(element, 0, size.get()) >= 0) {
+                return false;
+            }
+            appendLocked(element);
+            return true;
         } finally {
-            sizeLock.writeLock().unlock();
+            unlockWrite(stamp);
         }
     }
 
+    /**
+     * Empties the list and replaces the backing array with one of length 1.
+     */
     @Override
     public void clear() {
-        sizeLock.writeLock().lock();
+        clear(false);
+    }
+
+    /**
+     * Empties the list.
+     *
+     * @param keepCapacity if true, the backing array is kept and its used slots are nulled out, so
+     *     that refilling the list doesn't have to grow it again; otherwise it's replaced with one of
+     *     length 1
+     */
+    public void clear(boolean keepCapacity) {
+        long stamp = acquireWriteLock("clear");
         try {
-            array = new AtomicReferenceArray<>(1);
-            size.set(0);
+            int size = this.size.get();
+            preserve(0, size);
+            tombstones = null;
+            if (keepCapacity) {
+                for (int i = 0; i < size; i++) {
+                    array.set(i, null);
+                }
+            } else {
+                array = new AtomicReferenceArray<>(1);
+            }
+            if (positions != null) {
+                positions.clear();
+            }
+            setSize(0);
         } finally {
-            sizeLock.writeLock().unlock();
+            unlockWrite(stamp);
         }
     }
 
@@ -213,8 +2237,10 @@ public class AtomicReferenceArrayList<T> extends AbstractList<T>
      * @throws IndexOutOfBoundsException if the specified index is negative
      */
     public int indexOf(T element, int index) {
-        // TODO
-        return 0;
+        if (index < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        return find(element, index, false);
     }
 
     /**
@@ -233,8 +2259,97 @@ public class AtomicReferenceArrayList<T> extends AbstractList<T>
      * @throws IndexOutOfBoundsException if the specified index is greater
      *         than or equal to the current size of this list
      */
-    public int lastIndexOf(T element, T index) {
-        // TODO
-        return 0;
+    public int lastIndexOf(T element, int index) {
+        if (index >= size()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return find(element, index, true);
+    }
+
+    /**
+     * Serializes this list as a {@link SerializedForm}, which holds only the settings and the
+     * elements. Subclasses don't inherit this, and so keep the default form, which includes every
+     * slot of the backing array.
+     */
+    private Object writeReplace() {
+        return new SerializedForm<>(this);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        if (getClass() == AtomicReferenceArrayList.class) {
+            throw new InvalidObjectException("SerializedForm required");
+        }
+        in.defaultReadObject();
+    }
+
+    /**
+     * Serialized form of an {@link AtomicReferenceArrayList}: its settings, followed by its size and
+     * then its elements, without any unused capacity, tombstones or lock state. The elements are
+     * written from a {@link #snapshot()}, so they're consistent with each other, and writing them
+     * doesn't block other threads. The list is rebuilt with a backing array of exactly its size.
+     */
+    private static final class SerializedForm<T> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        /** Largest capacity allocated up front for a deserialized list, before its elements. */
+        private static final int MAX_TRUSTED_CAPACITY = 1 << 16;
+
+        private final boolean indexed;
+        private final boolean lazyRemoval;
+        private final GrowthPolicy growthPolicy;
+        private final int parallelSearchThreshold;
+        /** The snapshot being written. */
+        private transient List<T> elements;
+        /** The list being read. */
+        private transient AtomicReferenceArrayList<T> list;
+
+        SerializedForm(AtomicReferenceArrayList<T> list) {
+            indexed = list.positions != null;
+            lazyRemoval = list.lazyRemoval;
+            growthPolicy = list.growthPolicy;
+            parallelSearchThreshold = list.parallelSearchThreshold;
+            elements = list.snapshot();
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            int size = elements.size();
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeObject(elements.get(i));
+            }
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            if (growthPolicy == null || parallelSearchThreshold < 1) {
+                throw new InvalidObjectException("Invalid settings");
+            }
+            int size = in.readInt();
+            if (size < 0) {
+                throw new InvalidObjectException("Negative size: " + size);
+            }
+            // Nothing else can see the list yet, so it can be filled without locking. The size
+            // comes from the stream, so don't trust it for more than a modest initial capacity
+            // until that many elements have actually been read.
+            list = new AtomicReferenceArrayList<>(Math.min(size, MAX_TRUSTED_CAPACITY), indexed,
+                    lazyRemoval);
+            list.growthPolicy = growthPolicy;
+            list.parallelSearchThreshold = parallelSearchThreshold;
+            for (int i = 0; i < size; i++) {
+                @SuppressWarnings("unchecked") T element = (T) in.readObject();
+                if (i >= list.array.length()) {
+                    // Double regardless of the growth policy, but never past the size
+                    list.resize((int) Math.min(size, 2L * i));
+                }
+                list.array.set(i, element);
+                list.index(element, i);
+            }
+            list.setSize(size);
+        }
+
+        private Object readResolve() {
+            return list;
+        }
     }
 }
@@ -0,0 +1,270 @@
+package io.github.pr0methean.util;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent list of mutable length, backed by {@link AtomicReferenceArray} chunks whose length is
+ * a fixed power of two. Growing the list only adds chunks, so existing elements are never copied,
+ * and {@link #get(int)} finds an element with a shift and a mask, usually without locking.
+ * Inserting or removing anywhere but the end still shifts all the following elements, as in
+ * {@link AtomicReferenceArrayList}.
+ *
+ * @param <T> the element type
+ */
+public class ChunkedAtomicReferenceArrayList<T> extends AbstractList<T>
+        implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_CHUNK_SHIFT = 10;
+
+    private final int chunkShift;
+    private final int chunkMask;
+    /**
+     * Chunk {@code i} holds elements {@code i << chunkShift} through
+     * {@code ((i + 1) << chunkShift) - 1}. Only replaced by a longer copy once every slot is
+     * filled, so that no chunk can be installed in a directory that's already been copied.
+     */
+    private final AtomicReference<AtomicReferenceArray<AtomicReferenceArray<T>>> directory
+            = new AtomicReference<>(new AtomicReferenceArray<>(1));
+    /**
+     * Held for reading by anything that only changes slots or appends, and for writing by anything
+     * that moves elements or shrinks the list, so that an optimistic read that validates didn't
+     * race with a shift.
+     */
+    private final StampedLock sizeLock = new StampedLock();
+    private final AtomicInteger size = new AtomicInteger(0);
+    /**
+     * Number of slots claimed by {@link #add(Object)}, including those whose elements haven't been
+     * published to {@link #size} yet. Equal to {@link #size} whenever the write lock is held.
+     */
+    private final AtomicInteger reserved = new AtomicInteger(0);
+
+    public ChunkedAtomicReferenceArrayList() {
+        this(DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * @param chunkShift base-2 logarithm of the number of elements in each chunk
+     */
+    public ChunkedAtomicReferenceArrayList(int chunkShift) {
+        if (chunkShift < 0 || chunkShift > 30) {
+            throw new IllegalArgumentException("chunkShift must be between 0 and 30");
+        }
+        this.chunkShift = chunkShift;
+        chunkMask = (1 << chunkShift) - 1;
+    }
+
+    @SafeVarargs
+    public ChunkedAtomicReferenceArrayList(T... elements) {
+        this(DEFAULT_CHUNK_SHIFT);
+        for (int i = 0; i < elements.length; i++) {
+            chunk(i).set(i & chunkMask, elements[i]);
+        }
+        setSize(elements.length);
+    }
+
+    /**
+     * Returns the chunk that holds {@code index}, creating it and growing the directory if needed.
+     * Safe to call with either lock held.
+     */
+    private AtomicReferenceArray<T> chunk(int index) {
+        int chunkIndex = index >>> chunkShift;
+        while (true) {
+            AtomicReferenceArray<AtomicReferenceArray<T>> directory = this.directory.get();
+            if (chunkIndex < directory.length()) {
+                AtomicReferenceArray<T> chunk = directory.get(chunkIndex);
+                if (chunk != null) {
+                    return chunk;
+                }
+                chunk = new AtomicReferenceArray<>(chunkMask + 1);
+                if (directory.compareAndSet(chunkIndex, null, chunk)) {
+                    return chunk;
+                }
+            } else {
+                // Fill every empty slot first, so that the copy can't miss a chunk that another
+                // thread installs in the old directory
+                for (int i = 0; i < directory.length(); i++) {
+                    if (directory.get(i) == null) {
+                        directory.compareAndSet(i, null, new AtomicReferenceArray<>(chunkMask + 1));
+                    }
+                }
+                AtomicReferenceArray<AtomicReferenceArray<T>> newDirectory
+                        = new AtomicReferenceArray<>(Math.max(chunkIndex + 1, directory.length() * 2));
+                for (int i = 0; i < directory.length(); i++) {
+                    newDirectory.set(i, directory.get(i));
+                }
+                this.directory.compareAndSet(directory, newDirectory);
+            }
+        }
+    }
+
+    /**
+     * Must be called with either lock held, and only for an index that already has a chunk.
+     */
+    private AtomicReferenceArray<T> existingChunk(int index) {
+        return directory.get().get(index >>> chunkShift);
+    }
+
+    /**
+     * Reads the element without locking, unless a shift or {@link #clear()} runs concurrently, in
+     * which case it retries under the read lock.
+     */
+    @Override
+    public T get(int index) {
+        long stamp = sizeLock.tryOptimisticRead();
+        if (stamp != 0) {
+            if (index >= 0 && index < size.get()) {
+                // Every index below the size has a chunk, unless the list was just cleared, in
+                // which case the stamp won't validate
+                AtomicReferenceArray<AtomicReferenceArray<T>> directory = this.directory.get();
+                int chunkIndex = index >>> chunkShift;
+                AtomicReferenceArray<T> chunk
+                        = chunkIndex < directory.length() ? directory.get(chunkIndex) : null;
+                if (chunk != null) {
+                    T value = chunk.get(index & chunkMask);
+                    if (sizeLock.validate(stamp)) {
+                        return value;
+                    }
+                }
+            } else if (sizeLock.validate(stamp)) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+        }
+        stamp = sizeLock.readLock();
+        try {
+            if (index < 0 || index >= size.get()) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            return existingChunk(index).get(index & chunkMask);
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public T set(final int index, T element) {
+        if (index < 0) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+        long stamp = sizeLock.readLock();
+        try {
+            if (index < size.get()) {
+                return existingChunk(index).getAndSet(index & chunkMask, element);
+            }
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+        // If we've gotten to here, we're expanding the list
+        stamp = sizeLock.writeLock();
+        try {
+            AtomicReferenceArray<T> chunk = chunk(index);
+            if (size.get() <= index) {
+                setSize(index + 1);
+            }
+            return chunk.getAndSet(index & chunkMask, element);
+        } finally {
+            sizeLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Appends an element while holding only the read lock, the same way as
+     * {@link AtomicReferenceArrayList#add(Object)}. Since a new chunk never has to be filled from
+     * an old one, an append never waits for anything except earlier appends to be published. The
+     * chunk is created before the slot is claimed, so that nothing can fail between claiming and
+     * publishing it, which would leave every later append waiting forever.
+     */
+    @Override
+    public boolean add(T t) {
+        long stamp = sizeLock.readLock();
+        try {
+            while (true) {
+                int index = reserved.get();
+                AtomicReferenceArray<T> chunk = chunk(index);
+                if (reserved.compareAndSet(index, index + 1)) {
+                    chunk.set(index & chunkMask, t);
+                    while (!size.compareAndSet(index, index + 1)) {
+                        Thread.yield();
+                    }
+                    return true;
+                }
+            }
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void add(int index, T element) {
+        long stamp = sizeLock.writeLock();
+        try {
+            int size = this.size.get();
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException();
+            }
+            AtomicReferenceArray<T> destination = chunk(size);
+            for (int i = size; i > index; i--) {
+                AtomicReferenceArray<T> source = existingChunk(i - 1);
+                destination.set(i & chunkMask, source.get((i - 1) & chunkMask));
+                destination = source;
+            }
+            destination.set(index & chunkMask, element);
+            setSize(size + 1);
+        } finally {
+            sizeLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public T remove(int index) {
+        long stamp = sizeLock.writeLock();
+        try {
+            int size = this.size.get();
+            if (index < 0 || index >= size) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            AtomicReferenceArray<T> destination = existingChunk(index);
+            T removed = destination.get(index & chunkMask);
+            for (int i = index; i < size - 1; i++) {
+                AtomicReferenceArray<T> source = existingChunk(i + 1);
+                destination.set(i & chunkMask, source.get((i + 1) & chunkMask));
+                destination = source;
+            }
+            destination.set((size - 1) & chunkMask, null);
+            setSize(size - 1);
+            return removed;
+        } finally {
+            sizeLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public void clear() {
+        long stamp = sizeLock.writeLock();
+        try {
+            directory.set(new AtomicReferenceArray<>(1));
+            setSize(0);
+        } finally {
+            sizeLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Must be called with the write lock held.
+     */
+    private void setSize(int newSize) {
+        size.set(newSize);
+        reserved.set(newSize);
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.pr0methean.util;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Concurrent, fixed-length list backed by an {@link AtomicIntegerArray}, so that elements aren't
+ * boxed. The {@code int}-valued methods never allocate; the {@link java.util.List} methods box
+ * and unbox.
+ */
+public class FixedSizeAtomicIntArrayList extends AbstractList<Integer> implements RandomAccess {
+
+    protected final AtomicIntegerArray array;
+
+    protected FixedSizeAtomicIntArrayList(AtomicIntegerArray array) {
+        this.array = array;
+    }
+
+    public FixedSizeAtomicIntArrayList(int size) {
+        this(new AtomicIntegerArray(size));
+    }
+
+    public FixedSizeAtomicIntArrayList(int... elements) {
+        this(new AtomicIntegerArray(elements));
+    }
+
+    public int getInt(int index) {
+        return array.get(index);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return array.get(index);
+    }
+
+    /**
+     * @return the previous value
+     */
+    public int setInt(int index, int element) {
+        return array.getAndSet(index, element);
+    }
+
+    @Override
+    public Integer set(int index, Integer element) {
+        return array.getAndSet(index, element);
+    }
+
+    /**
+     * Atomically adds {@code delta} to the element at {@code index}.
+     *
+     * @return the previous value
+     */
+    public int getAndAdd(int index, int delta) {
+        return array.getAndAdd(index, delta);
+    }
+
+    /**
+     * Atomically adds {@code delta} to the element at {@code index}.
+     *
+     * @return the updated value
+     */
+    public int addAndGet(int index, int delta) {
+        return array.addAndGet(index, delta);
+    }
+
+    /**
+     * Atomically increments the element at {@code index}.
+     *
+     * @return the updated value
+     */
+    public int incrementAndGet(int index) {
+        return array.incrementAndGet(index);
+    }
+
+    /**
+     * Atomically decrements the element at {@code index}.
+     *
+     * @return the updated value
+     */
+    public int decrementAndGet(int index) {
+        return array.decrementAndGet(index);
+    }
+
+    @Override
+    public int size() {
+        return array.length();
+    }
+
+    /**
+     * Returns a spliterator that reads each element from the backing array without locking and
+     * splits evenly by index range, as {@link FixedSizeAtomicReferenceArrayList#spliterator()}
+     * does.
+     */
+    @Override
+    public Spliterator<Integer> spliterator() {
+        return new IndexRangeSpliterator<>(array::get, 0, array.length(),
+                Spliterator.CONCURRENT | Spliterator.NONNULL);
+    }
+}
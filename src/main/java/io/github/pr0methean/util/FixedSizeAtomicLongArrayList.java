@@ -0,0 +1,101 @@
+package io.github.pr0methean.util;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent, fixed-length list backed by an {@link AtomicLongArray}, so that elements aren't
+ * boxed. The {@code long}-valued methods never allocate; the {@link java.util.List} methods box
+ * and unbox.
+ */
+public class FixedSizeAtomicLongArrayList extends AbstractList<Long> implements RandomAccess {
+
+    protected final AtomicLongArray array;
+
+    protected FixedSizeAtomicLongArrayList(AtomicLongArray array) {
+        this.array = array;
+    }
+
+    public FixedSizeAtomicLongArrayList(int size) {
+        this(new AtomicLongArray(size));
+    }
+
+    public FixedSizeAtomicLongArrayList(long... elements) {
+        this(new AtomicLongArray(elements));
+    }
+
+    public long getLong(int index) {
+        return array.get(index);
+    }
+
+    @Override
+    public Long get(int index) {
+        return array.get(index);
+    }
+
+    /**
+     * @return the previous value
+     */
+    public long setLong(int index, long element) {
+        return array.getAndSet(index, element);
+    }
+
+    @Override
+    public Long set(int index, Long element) {
+        return array.getAndSet(index, element);
+    }
+
+    /**
+     * Atomically adds {@code delta} to the element at {@code index}.
+     *
+     * @return the previous value
+     */
+    public long getAndAdd(int index, long delta) {
+        return array.getAndAdd(index, delta);
+    }
+
+    /**
+     * Atomically adds {@code delta} to the element at {@code index}.
+     *
+     * @return the updated value
+     */
+    public long addAndGet(int index, long delta) {
+        return array.addAndGet(index, delta);
+    }
+
+    /**
+     * Atomically increments the element at {@code index}.
+     *
+     * @return the updated value
+     */
+    public long incrementAndGet(int index) {
+        return array.incrementAndGet(index);
+    }
+
+    /**
+     * Atomically decrements the element at {@code index}.
+     *
+     * @return the updated value
+     */
+    public long decrementAndGet(int index) {
+        return array.decrementAndGet(index);
+    }
+
+    @Override
+    public int size() {
+        return array.length();
+    }
+
+    /**
+     * Returns a spliterator that reads each element from the backing array without locking and
+     * splits evenly by index range, as {@link FixedSizeAtomicReferenceArrayList#spliterator()}
+     * does.
+     */
+    @Override
+    public Spliterator<Long> spliterator() {
+        return new IndexRangeSpliterator<>(array::get, 0, array.length(),
+                Spliterator.CONCURRENT | Spliterator.NONNULL);
+    }
+}
@@ -1,7 +1,10 @@
 package io.github.pr0methean.util;
 
 import java.util.AbstractList;
+import java.util.Spliterator;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
 
 /**
  * Concurrent, fixed-length list backed by an {@link AtomicReferenceArray}.
@@ -34,8 +37,92 @@ public class FixedSizeAtomicReferenceArrayList<T> extends AbstractList<T> {
         return array.getAndSet(index, element);
     }
 
+    /**
+     * @see AtomicReferenceArray#getAcquire(int)
+     */
+    public T getAcquire(int index) {
+        return array.getAcquire(index);
+    }
+
+    /**
+     * @see AtomicReferenceArray#getOpaque(int)
+     */
+    public T getOpaque(int index) {
+        return array.getOpaque(index);
+    }
+
+    /**
+     * @see AtomicReferenceArray#setRelease(int, Object)
+     */
+    public void setRelease(int index, T newValue) {
+        array.setRelease(index, newValue);
+    }
+
+    /**
+     * @see AtomicReferenceArray#lazySet(int, Object)
+     */
+    public void lazySet(int index, T newValue) {
+        array.lazySet(index, newValue);
+    }
+
+    /**
+     * Atomically sets the element at {@code index} to {@code newValue} if it's
+     * {@code expectedValue}, compared by identity.
+     *
+     * @return whether the element was set
+     * @see AtomicReferenceArray#compareAndSet(int, Object, Object)
+     */
+    public boolean compareAndSet(int index, T expectedValue, T newValue) {
+        return array.compareAndSet(index, expectedValue, newValue);
+    }
+
+    /**
+     * Like {@link #compareAndSet(int, Object, Object)}, but may fail spuriously.
+     *
+     * @return whether the element was set
+     * @see AtomicReferenceArray#weakCompareAndSetVolatile(int, Object, Object)
+     */
+    public boolean weakCompareAndSet(int index, T expectedValue, T newValue) {
+        return array.weakCompareAndSetVolatile(index, expectedValue, newValue);
+    }
+
+    /**
+     * @return the previous value
+     * @see AtomicReferenceArray#getAndUpdate(int, UnaryOperator)
+     */
+    public T getAndUpdate(int index, UnaryOperator<T> updateFunction) {
+        return array.getAndUpdate(index, updateFunction);
+    }
+
+    /**
+     * @return the updated value
+     * @see AtomicReferenceArray#updateAndGet(int, UnaryOperator)
+     */
+    public T updateAndGet(int index, UnaryOperator<T> updateFunction) {
+        return array.updateAndGet(index, updateFunction);
+    }
+
+    /**
+     * @return the updated value
+     * @see AtomicReferenceArray#accumulateAndGet(int, Object, BinaryOperator)
+     */
+    public T accumulateAndGet(int index, T x, BinaryOperator<T> accumulatorFunction) {
+        return array.accumulateAndGet(index, x, accumulatorFunction);
+    }
+
     @Override
     public int size() {
         return array.length();
     }
+
+    /**
+     * Returns a spliterator that reads each element from the backing array without locking and
+     * splits evenly by index range. Since the size never changes, it reports
+     * {@link Spliterator#SIZED} and {@link Spliterator#SUBSIZED} as well as
+     * {@link Spliterator#CONCURRENT}.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new IndexRangeSpliterator<>(array::get, 0, array.length(), Spliterator.CONCURRENT);
+    }
 }
@@ -0,0 +1,115 @@
+package io.github.pr0methean.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events emitted by {@link AtomicReferenceArrayList}. This is the only class
+ * that refers to {@code jdk.jfr}, and the list only calls it when that module is present, so that
+ * the list still works on runtimes without it. The events are passed around as {@link Object} for
+ * the same reason. Each method returns null or does nothing while its event isn't enabled, which
+ * is the case whenever no recording is running.
+ */
+final class FlightRecorderEvents {
+    static final String CATEGORY = "AtomicReferenceArrayList";
+
+    @Name("io.github.pr0methean.util.Resize")
+    @Label("List Resize")
+    @Category({"Java Application", CATEGORY})
+    @Description("The backing array of a list was replaced with one of a different length. The"
+            + " duration is that of the copy, which may have been shared by several threads.")
+    static final class ResizeEvent extends Event {
+        @Label("Old Capacity")
+        int oldCapacity;
+
+        @Label("New Capacity")
+        int newCapacity;
+
+        @Label("Elements Copied")
+        int elementsCopied;
+    }
+
+    @Name("io.github.pr0methean.util.WriteLock")
+    @Label("List Write Lock")
+    @Category({"Java Application", CATEGORY})
+    @Description("A list operation waited for and then held the write lock. The duration covers"
+            + " both.")
+    @Threshold("10 ms")
+    static final class WriteLockEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Wait Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long waitTime;
+
+        @Label("List Size")
+        @Description("The size when the lock was released")
+        int size;
+    }
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * Starts timing a resize, if resize events are enabled.
+     */
+    static Object beginResize() {
+        ResizeEvent event = new ResizeEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param event returned by {@link #beginResize()}; may have come from another thread
+     */
+    static void commitResize(Object event, int oldCapacity, int newCapacity, int elementsCopied) {
+        ResizeEvent resize = (ResizeEvent) event;
+        resize.oldCapacity = oldCapacity;
+        resize.newCapacity = newCapacity;
+        resize.elementsCopied = elementsCopied;
+        resize.commit();
+    }
+
+    /**
+     * Starts timing a wait for the write lock, if write lock events are enabled.
+     */
+    static Object beginWriteLock(String operation) {
+        WriteLockEvent event = new WriteLockEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param event returned by {@link #beginWriteLock(String)}
+     */
+    static void writeLockAcquired(Object event, long waitNanos) {
+        ((WriteLockEvent) event).waitTime = waitNanos;
+    }
+
+    /**
+     * Ends and records a write lock event if it lasted longer than its threshold.
+     *
+     * @param event returned by {@link #beginWriteLock(String)}
+     */
+    static void commitWriteLock(Object event, int size) {
+        WriteLockEvent writeLock = (WriteLockEvent) event;
+        writeLock.end();
+        if (writeLock.shouldCommit()) {
+            writeLock.size = size;
+            writeLock.commit();
+        }
+    }
+}
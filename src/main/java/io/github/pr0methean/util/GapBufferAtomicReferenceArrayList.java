@@ -0,0 +1,261 @@
+package io.github.pr0methean.util;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent list of mutable length, backed by an {@link AtomicReferenceArray} that keeps its
+ * unused slots as a gap at the position of the most recent insertion or removal, as a text
+ * editor's buffer does. Inserting or removing an element only moves the elements between the gap
+ * and the target index, so a run of edits near the same position takes nearly constant time each,
+ * where {@link AtomicReferenceArrayList} would shift every following element each time.
+ *
+ * <p>Edits hold a write lock, but only while they move the gap. {@link #get(int)} doesn't lock
+ * unless an optimistic read overlaps an edit, and {@link #set(int, Object)} only holds the read
+ * lock.
+ *
+ * @param <T> the element type
+ */
+public class GapBufferAtomicReferenceArrayList<T> extends AbstractList<T>
+        implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Slots {@link #gapStart} through {@link #gapEnd} - 1 are unused, and all others hold elements.
+     * Only replaced with the write lock held.
+     */
+    private AtomicReferenceArray<T> array;
+    /** Only changed with the write lock held. */
+    private int gapStart;
+    /** Only changed with the write lock held. */
+    private int gapEnd;
+    private final StampedLock sizeLock = new StampedLock();
+    private final AtomicInteger size = new AtomicInteger(0);
+    private volatile GrowthPolicy growthPolicy = GrowthPolicy.DOUBLING;
+
+    public GapBufferAtomicReferenceArrayList() {
+        this(1);
+    }
+
+    /**
+     * @param capacity the initial capacity
+     */
+    public GapBufferAtomicReferenceArrayList(int capacity) {
+        array = new AtomicReferenceArray<>(capacity);
+        gapEnd = capacity;
+    }
+
+    @SafeVarargs
+    public GapBufferAtomicReferenceArrayList(T... elements) {
+        // Copied one at a time rather than through AtomicReferenceArray(T[]), so that the varargs
+        // array never escapes this constructor
+        array = new AtomicReferenceArray<>(elements.length);
+        for (int i = 0; i < elements.length; i++) {
+            array.set(i, elements[i]);
+        }
+        gapStart = gapEnd = elements.length;
+        size.set(elements.length);
+    }
+
+    public GrowthPolicy getGrowthPolicy() {
+        return growthPolicy;
+    }
+
+    /**
+     * Sets how long a new backing array is when the gap is used up. Defaults to
+     * {@link GrowthPolicy#DOUBLING}.
+     */
+    public void setGrowthPolicy(GrowthPolicy growthPolicy) {
+        if (growthPolicy == null) {
+            throw new NullPointerException();
+        }
+        this.growthPolicy = growthPolicy;
+    }
+
+    /**
+     * Returns the slot that holds {@code index}. Must be called with a lock held or within an
+     * optimistic read that will be validated afterward.
+     */
+    private int slot(int index, int gapStart, int gapEnd) {
+        return index < gapStart ? index : index + (gapEnd - gapStart);
+    }
+
+    /**
+     * Reads without locking, and only falls back to the read lock if the gap was moved in the
+     * meantime.
+     */
+    @Override
+    public T get(int index) {
+        long stamp = sizeLock.tryOptimisticRead();
+        if (stamp != 0) {
+            AtomicReferenceArray<T> array = this.array;
+            int gapStart = this.gapStart;
+            int gapEnd = this.gapEnd;
+            if (index < 0 || index >= size.get()) {
+                if (sizeLock.validate(stamp)) {
+                    throw new ArrayIndexOutOfBoundsException();
+                }
+            } else {
+                int slot = slot(index, gapStart, gapEnd);
+                if (slot < array.length()) {
+                    T value = array.get(slot);
+                    if (sizeLock.validate(stamp)) {
+                        return value;
+                    }
+                }
+            }
+        }
+        stamp = sizeLock.readLock();
+        try {
+            checkIndex(index);
+            return array.get(slot(index, gapStart, gapEnd));
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Replaces an element while holding only the read lock. Unlike
+     * {@link AtomicReferenceArrayList#set(int, Object)}, this doesn't extend the list.
+     *
+     * @throws ArrayIndexOutOfBoundsException if {@code index} isn't below the size
+     */
+    @Override
+    public T set(int index, T element) {
+        long stamp = sizeLock.readLock();
+        try {
+            checkIndex(index);
+            return array.getAndSet(slot(index, gapStart, gapEnd), element);
+        } finally {
+            sizeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Must be called with a lock held.
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size.get()) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public void add(int index, T element) {
+        long stamp = sizeLock.writeLock();
+        try {
+            int size = this.size.get();
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException();
+            }
+            insertLocked(index, element);
+        } finally {
+            sizeLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Appends an element. Reads the size under the write lock, so that a concurrent removal can't
+     * leave the index past the end.
+     */
+    @Override
+    public boolean add(T element) {
+        long stamp = sizeLock.writeLock();
+        try {
+            insertLocked(size.get(), element);
+            return true;
+        } finally {
+            sizeLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Inserts an element at {@code index}, which must be from 0 through the size. Must be called
+     * with the write lock held.
+     */
+    private void insertLocked(int index, T element) {
+        int size = this.size.get();
+        if (gapStart == gapEnd) {
+            grow(size + 1);
+        }
+        moveGap(index);
+        array.set(gapStart++, element);
+        this.size.set(size + 1);
+    }
+
+    @Override
+    public T remove(int index) {
+        long stamp = sizeLock.writeLock();
+        try {
+            checkIndex(index);
+            moveGap(index);
+            T removed = array.getAndSet(gapEnd++, null);
+            size.decrementAndGet();
+            return removed;
+        } finally {
+            sizeLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Moves the gap so that it starts at {@code index}, moving only the elements in between. Must
+     * be called with the write lock held.
+     */
+    private void moveGap(int index) {
+        if (index < gapStart) {
+            for (int i = gapStart - 1; i >= index; i--) {
+                array.set(--gapEnd, array.getAndSet(i, null));
+            }
+        } else {
+            for (int i = gapStart; i < index; i++) {
+                array.set(i, array.getAndSet(gapEnd++, null));
+            }
+        }
+        gapStart = index;
+    }
+
+    /**
+     * Replaces the array with one at least {@code minCapacity} long, as chosen by the
+     * {@link GrowthPolicy}, keeping the gap where it is. Must be called with the write lock held.
+     */
+    private void grow(int minCapacity) {
+        AtomicReferenceArray<T> oldArray = array;
+        int oldLength = oldArray.length();
+        int newLength = Math.max(minCapacity, growthPolicy.newCapacity(oldLength, minCapacity));
+        AtomicReferenceArray<T> newArray = new AtomicReferenceArray<>(newLength);
+        for (int i = 0; i < gapStart; i++) {
+            newArray.set(i, oldArray.get(i));
+        }
+        int newGapEnd = newLength - (oldLength - gapEnd);
+        for (int i = gapEnd; i < oldLength; i++) {
+            newArray.set(i + newGapEnd - gapEnd, oldArray.get(i));
+        }
+        array = newArray;
+        gapEnd = newGapEnd;
+    }
+
+    /**
+     * Doesn't lock, since {@link #size} is only ever updated atomically.
+     */
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public void clear() {
+        long stamp = sizeLock.writeLock();
+        try {
+            array = new AtomicReferenceArray<>(1);
+            gapStart = 0;
+            gapEnd = 1;
+            size.set(0);
+        } finally {
+            sizeLock.unlockWrite(stamp);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.pr0methean.util;
+
+import java.io.Serializable;
+
+/**
+ * Decides how long a new backing array should be when a list's current one is too short. It's
+ * {@link Serializable} because the list that uses it is.
+ */
+@FunctionalInterface
+public interface GrowthPolicy extends Serializable {
+    /**
+     * Doubles the capacity, as {@link AtomicReferenceArrayList} always used to.
+     */
+    GrowthPolicy DOUBLING = factor(2.0);
+
+    /**
+     * @param currentCapacity the length of the current array
+     * @param minCapacity the length that's needed; always greater than {@code currentCapacity}
+     * @return the length of the new array; if this is less than {@code minCapacity}, then
+     *     {@code minCapacity} is used instead
+     */
+    int newCapacity(int currentCapacity, int minCapacity);
+
+    /**
+     * Returns a policy that multiplies the capacity by {@code factor}.
+     *
+     * @param factor must be greater than 1
+     */
+    static GrowthPolicy factor(double factor) {
+        if (!(factor > 1.0)) {
+            throw new IllegalArgumentException("factor must be greater than 1");
+        }
+        return (currentCapacity, minCapacity) -> clamp(currentCapacity * factor);
+    }
+
+    /**
+     * Returns a policy that adds {@code increment} slots at a time.
+     *
+     * @param increment must be positive
+     */
+    static GrowthPolicy additive(int increment) {
+        if (increment < 1) {
+            throw new IllegalArgumentException("increment must be positive");
+        }
+        return (currentCapacity, minCapacity) -> clamp((double) currentCapacity + increment);
+    }
+
+    /**
+     * Returns a policy that grows as this one does, but never adds more than {@code maxIncrement}
+     * slots to the current capacity at once, unless even more are needed to reach the minimum
+     * capacity, in which case it grows to exactly that. This way a large list doesn't double its
+     * footprint for the sake of a few more elements.
+     *
+     * @param maxIncrement must be positive
+     */
+    default GrowthPolicy capped(int maxIncrement) {
+        if (maxIncrement < 1) {
+            throw new IllegalArgumentException("maxIncrement must be positive");
+        }
+        return (currentCapacity, minCapacity) -> (int) Math.min(
+                newCapacity(currentCapacity, minCapacity),
+                Math.max(minCapacity, (long) currentCapacity + maxIncrement));
+    }
+
+    private static int clamp(double capacity) {
+        return (int) Math.min(capacity, Integer.MAX_VALUE);
+    }
+}
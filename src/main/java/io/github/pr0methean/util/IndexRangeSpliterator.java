@@ -0,0 +1,77 @@
+package io.github.pr0methean.util;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Spliterator over a fixed range of indices, whose elements are read one index at a time without
+ * locking. Splits the range evenly in half, so that parallel streams divide the work evenly.
+ *
+ * @param <T> the element type
+ */
+final class IndexRangeSpliterator<T> implements Spliterator<T> {
+    private final IntFunction<T> reader;
+    private int index;
+    private final int fence;
+    private final int characteristics;
+
+    /**
+     * @param reader reads the element at an index
+     * @param origin the first index to cover
+     * @param fence one past the last index to cover
+     * @param characteristics reported in addition to {@link #ORDERED}, {@link #SIZED} and
+     *     {@link #SUBSIZED}
+     */
+    IndexRangeSpliterator(IntFunction<T> reader, int origin, int fence, int characteristics) {
+        this.reader = reader;
+        index = origin;
+        this.fence = fence;
+        this.characteristics = characteristics | ORDERED | SIZED | SUBSIZED;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        int lo = index;
+        int mid = (lo + fence) >>> 1;
+        if (lo >= mid) {
+            return null;
+        }
+        index = mid;
+        return new IndexRangeSpliterator<>(reader, lo, mid, characteristics);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        if (index >= fence) {
+            return false;
+        }
+        action.accept(reader.apply(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        int fence = this.fence;
+        for (int i = index; i < fence; i++) {
+            action.accept(reader.apply(i));
+        }
+        index = fence;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.pr0methean.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * {@link ListMetricsListener} that keeps running totals in {@link LongAdder}s, so that threads
+ * recording events don't contend with each other, and exposes them as a {@link ListMetricsMXBean}.
+ * One instance may be shared by several lists to get combined totals. The totals are read without
+ * stopping the lists, so a set of them read while the lists are in use may not be consistent.
+ *
+ * <pre>{@code
+ * ListMetrics metrics = new ListMetrics();
+ * list.setMetricsListener(metrics);
+ * metrics.register("io.github.pr0methean.util:type=ListMetrics,name=orders");
+ * }</pre>
+ */
+public class ListMetrics implements ListMetricsListener, ListMetricsMXBean {
+    /**
+     * Size of a slot of an {@code Object[]}, which depends on whether references are compressed.
+     */
+    private static final int REFERENCE_BYTES = referenceBytes();
+
+    private final LongAdder readLockAcquisitions = new LongAdder();
+    private final LongAdder writeLockAcquisitions = new LongAdder();
+    private final LongAdder readLockWaitNanos = new LongAdder();
+    private final LongAdder writeLockWaitNanos = new LongAdder();
+    private final LongAdder contendedLockAcquisitions = new LongAdder();
+    private final LongAdder resizes = new LongAdder();
+    private final LongAdder elementsCopied = new LongAdder();
+    private final LongAdder shifts = new LongAdder();
+    private final LongAdder elementsShifted = new LongAdder();
+    private final LongAccumulator maxShiftLength = new LongAccumulator(Math::max, 0);
+    private final LongAdder setFastPathHits = new LongAdder();
+    private final LongAdder setSlowPathHits = new LongAdder();
+
+    private static int referenceBytes() {
+        try {
+            return Class.forName("sun.misc.Unsafe").getField("ARRAY_OBJECT_INDEX_SCALE").getInt(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return 8;
+        }
+    }
+
+    @Override
+    public void lockAcquired(boolean exclusive, long waitNanos) {
+        if (exclusive) {
+            writeLockAcquisitions.increment();
+        } else {
+            readLockAcquisitions.increment();
+        }
+        if (waitNanos > 0) {
+            contendedLockAcquisitions.increment();
+            (exclusive ? writeLockWaitNanos : readLockWaitNanos).add(waitNanos);
+        }
+    }
+
+    @Override
+    public void resized(int oldCapacity, int newCapacity, int elementsCopied) {
+        resizes.increment();
+        this.elementsCopied.add(elementsCopied);
+    }
+
+    @Override
+    public void shifted(int elementsMoved) {
+        if (elementsMoved > 0) {
+            shifts.increment();
+            elementsShifted.add(elementsMoved);
+            maxShiftLength.accumulate(elementsMoved);
+        }
+    }
+
+    @Override
+    public void set(boolean fastPath) {
+        (fastPath ? setFastPathHits : setSlowPathHits).increment();
+    }
+
+    @Override
+    public long getReadLockAcquisitions() {
+        return readLockAcquisitions.sum();
+    }
+
+    @Override
+    public long getWriteLockAcquisitions() {
+        return writeLockAcquisitions.sum();
+    }
+
+    @Override
+    public long getReadLockWaitNanos() {
+        return readLockWaitNanos.sum();
+    }
+
+    @Override
+    public long getWriteLockWaitNanos() {
+        return writeLockWaitNanos.sum();
+    }
+
+    @Override
+    public long getContendedLockAcquisitions() {
+        return contendedLockAcquisitions.sum();
+    }
+
+    @Override
+    public long getResizes() {
+        return resizes.sum();
+    }
+
+    @Override
+    public long getElementsCopied() {
+        return elementsCopied.sum();
+    }
+
+    @Override
+    public long getBytesCopied() {
+        return elementsCopied.sum() * REFERENCE_BYTES;
+    }
+
+    @Override
+    public long getShifts() {
+        return shifts.sum();
+    }
+
+    @Override
+    public long getElementsShifted() {
+        return elementsShifted.sum();
+    }
+
+    @Override
+    public long getMaxShiftLength() {
+        return maxShiftLength.get();
+    }
+
+    @Override
+    public long getSetFastPathHits() {
+        return setFastPathHits.sum();
+    }
+
+    @Override
+    public long getSetSlowPathHits() {
+        return setSlowPathHits.sum();
+    }
+
+    /**
+     * Zeroes all the totals. Events recorded concurrently may be lost or partly counted.
+     */
+    @Override
+    public void reset() {
+        readLockAcquisitions.reset();
+        writeLockAcquisitions.reset();
+        readLockWaitNanos.reset();
+        writeLockWaitNanos.reset();
+        contendedLockAcquisitions.reset();
+        resizes.reset();
+        elementsCopied.reset();
+        shifts.reset();
+        elementsShifted.reset();
+        maxShiftLength.reset();
+        setFastPathHits.reset();
+        setSlowPathHits.reset();
+    }
+
+    /**
+     * Registers this with the platform MBean server.
+     *
+     * @param name the JMX object name, such as
+     *     {@code "io.github.pr0methean.util:type=ListMetrics,name=orders"}
+     * @return the registered name, for {@link #unregister(ObjectName)}
+     * @throws IllegalStateException if the name is malformed or already registered
+     */
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = new ObjectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Removes a registration made by {@link #register(String)}, if it's still present.
+     */
+    public static void unregister(ObjectName name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.pr0methean.util;
+
+/**
+ * Receives instrumentation events from an {@link AtomicReferenceArrayList}; see
+ * {@link AtomicReferenceArrayList#setMetricsListener(ListMetricsListener)}. Every method is called
+ * synchronously by the thread doing the work, so implementations must be thread-safe and fast.
+ * Events that happen under the write lock are delivered just after it's released, so those
+ * callbacks may call back into the list. But {@code lockAcquired(false, ...)}, {@code set(true)},
+ * and {@code resized} when an append grows the array are called with the read lock held; since
+ * the lock isn't reentrant, those must never call back into the list. Each method does nothing by
+ * default. {@link ListMetrics} is an implementation that keeps running totals.
+ */
+public interface ListMetricsListener {
+    /**
+     * Called after the list's lock is acquired.
+     *
+     * @param exclusive true for the write lock, which is taken by anything that changes the size
+     *     other than by appending, or moves elements; false for the read lock
+     * @param waitNanos how long the caller waited for the lock, or 0 if it was free
+     */
+    default void lockAcquired(boolean exclusive, long waitNanos) {
+    }
+
+    /**
+     * Called after the backing array is replaced with one of a different length.
+     *
+     * @param oldCapacity the length of the replaced array
+     * @param newCapacity the length of the new array
+     * @param elementsCopied the number of slots copied from the old array into the new one
+     */
+    default void resized(int oldCapacity, int newCapacity, int elementsCopied) {
+    }
+
+    /**
+     * Called after elements are moved to other slots by an insertion or removal that isn't at the
+     * end of the list, or by compacting lazily removed elements.
+     *
+     * @param elementsMoved the number of elements that moved, which may be 0
+     */
+    default void shifted(int elementsMoved) {
+    }
+
+    /**
+     * Called after {@link AtomicReferenceArrayList#set(int, Object)} replaces an element.
+     *
+     * @param fastPath true if the index was below the size, so that only the read lock was needed;
+     *     false if the list had to be extended under the write lock
+     */
+    default void set(boolean fastPath) {
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.pr0methean.util;
+
+/**
+ * Management interface of {@link ListMetrics}. All counts are totals since the metrics were
+ * created or last {@link #reset()}.
+ */
+public interface ListMetricsMXBean {
+    long getReadLockAcquisitions();
+
+    long getWriteLockAcquisitions();
+
+    /**
+     * Total time spent waiting for the read lock, in nanoseconds.
+     */
+    long getReadLockWaitNanos();
+
+    /**
+     * Total time spent waiting for the write lock, in nanoseconds.
+     */
+    long getWriteLockWaitNanos();
+
+    /**
+     * Number of times the read or write lock wasn't free when it was requested.
+     */
+    long getContendedLockAcquisitions();
+
+    long getResizes();
+
+    long getElementsCopied();
+
+    /**
+     * Approximate number of bytes of references copied by resizes, assuming each reference takes
+     * as much space as one slot of an {@code Object[]} in this JVM.
+     */
+    long getBytesCopied();
+
+    /**
+     * Number of insertions, removals and compactions that moved elements to other slots.
+     */
+    long getShifts();
+
+    long getElementsShifted();
+
+    /**
+     * Largest number of elements moved by a single insertion, removal or compaction.
+     */
+    long getMaxShiftLength();
+
+    /**
+     * Number of calls to {@link AtomicReferenceArrayList#set(int, Object)} that only needed the
+     * read lock.
+     */
+    long getSetFastPathHits();
+
+    /**
+     * Number of calls to {@link AtomicReferenceArrayList#set(int, Object)} that had to extend the
+     * list under the write lock.
+     */
+    long getSetSlowPathHits();
+
+    void reset();
+}
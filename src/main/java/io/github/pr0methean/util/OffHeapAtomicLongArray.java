@@ -0,0 +1,204 @@
+package io.github.pr0methean.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Concurrent, fixed-length array of longs stored outside the heap in direct {@link ByteBuffer}s,
+ * so that even billions of slots give the garbage collector nothing to scan or copy. It's the
+ * off-heap counterpart of {@link FixedSizeAtomicLongArrayList}: every access is atomic, through a
+ * {@link VarHandle}, with the same memory effects as the corresponding method of
+ * {@link java.util.concurrent.atomic.AtomicLongArray}. Indices are longs, so the length may exceed
+ * {@link Integer#MAX_VALUE}; the slots are spread over as many buffers as needed.
+ *
+ * <p>The memory is freed by {@link #close()} rather than by the garbage collector. Any access after
+ * that throws {@link IllegalStateException}, but one that races with it may read freed memory, so
+ * all other accesses must be finished before it's called.
+ */
+public class OffHeapAtomicLongArray implements AutoCloseable {
+    /**
+     * The default and maximum base-2 logarithm of the number of slots in each buffer; a buffer
+     * can't hold {@code 1 << 31} bytes.
+     */
+    public static final int DEFAULT_BUFFER_SHIFT = 27;
+    private static final VarHandle SLOT
+            = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    /**
+     * {@code sun.misc.Unsafe.invokeCleaner(ByteBuffer)} bound to the {@code Unsafe} instance, or
+     * null if it's not accessible, in which case {@link #close()} leaves the buffers for the garbage
+     * collector to free.
+     */
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private final long length;
+    private final int bufferShift;
+    private final long bufferMask;
+    /**
+     * 8-byte-aligned slices of {@link #allocations}, since the atomic access modes of
+     * {@link #SLOT} fail on a misaligned offset. Null once closed.
+     */
+    private volatile ByteBuffer[] buffers;
+    /**
+     * The buffers as allocated, which are what the cleaner has to free. Null once closed.
+     */
+    private ByteBuffer[] allocations;
+
+    public OffHeapAtomicLongArray(long length) {
+        this(length, DEFAULT_BUFFER_SHIFT);
+    }
+
+    /**
+     * @param length the number of slots, all initially zero
+     * @param bufferShift base-2 logarithm of the number of slots in each buffer, at most
+     *     {@link #DEFAULT_BUFFER_SHIFT}
+     */
+    public OffHeapAtomicLongArray(long length, int bufferShift) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative");
+        }
+        if (bufferShift < 0 || bufferShift > DEFAULT_BUFFER_SHIFT) {
+            throw new IllegalArgumentException(
+                    "bufferShift must be between 0 and " + DEFAULT_BUFFER_SHIFT);
+        }
+        this.length = length;
+        this.bufferShift = bufferShift;
+        bufferMask = (1L << bufferShift) - 1;
+        long bufferCount = (length + bufferMask) >>> bufferShift;
+        if (bufferCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("length is too large for bufferShift");
+        }
+        ByteBuffer[] allocations = new ByteBuffer[(int) bufferCount];
+        ByteBuffer[] buffers = new ByteBuffer[(int) bufferCount];
+        for (int i = 0; i < buffers.length; i++) {
+            long slots = Math.min(bufferMask + 1, length - ((long) i << bufferShift));
+            // Direct buffers are only guaranteed byte alignment, so leave room to skip up to 7
+            allocations[i] = ByteBuffer.allocateDirect((int) (slots << 3) + 7);
+            buffers[i] = allocations[i].alignedSlice(8).order(ByteOrder.nativeOrder());
+        }
+        this.allocations = allocations;
+        this.buffers = buffers;
+    }
+
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner",
+                            MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public long length() {
+        return length;
+    }
+
+    private ByteBuffer buffer(long index) {
+        if (index < 0 || index >= length) {
+            throw new ArrayIndexOutOfBoundsException("Index: " + index);
+        }
+        ByteBuffer[] buffers = this.buffers;
+        if (buffers == null) {
+            throw new IllegalStateException("Already closed");
+        }
+        return buffers[(int) (index >>> bufferShift)];
+    }
+
+    private int offset(long index) {
+        return (int) (index & bufferMask) << 3;
+    }
+
+    public long get(long index) {
+        return (long) SLOT.getVolatile(buffer(index), offset(index));
+    }
+
+    public void set(long index, long newValue) {
+        SLOT.setVolatile(buffer(index), offset(index), newValue);
+    }
+
+    /**
+     * @return the previous value
+     */
+    public long getAndSet(long index, long newValue) {
+        return (long) SLOT.getAndSet(buffer(index), offset(index), newValue);
+    }
+
+    /**
+     * Atomically sets the element at {@code index} to {@code newValue} if it's
+     * {@code expectedValue}.
+     *
+     * @return whether the element was set
+     */
+    public boolean compareAndSet(long index, long expectedValue, long newValue) {
+        return SLOT.compareAndSet(buffer(index), offset(index), expectedValue, newValue);
+    }
+
+    /**
+     * Atomically adds {@code delta} to the element at {@code index}.
+     *
+     * @return the previous value
+     */
+    public long getAndAdd(long index, long delta) {
+        return (long) SLOT.getAndAdd(buffer(index), offset(index), delta);
+    }
+
+    /**
+     * Atomically adds {@code delta} to the element at {@code index}.
+     *
+     * @return the updated value
+     */
+    public long addAndGet(long index, long delta) {
+        return getAndAdd(index, delta) + delta;
+    }
+
+    /**
+     * Atomically increments the element at {@code index}.
+     *
+     * @return the updated value
+     */
+    public long incrementAndGet(long index) {
+        return addAndGet(index, 1);
+    }
+
+    /**
+     * Atomically decrements the element at {@code index}.
+     *
+     * @return the updated value
+     */
+    public long decrementAndGet(long index) {
+        return addAndGet(index, -1);
+    }
+
+    /**
+     * Frees the memory immediately, if the JDK allows it, rather than when the garbage collector
+     * finds the buffers unreachable. Does nothing if already closed.
+     */
+    @Override
+    public void close() {
+        ByteBuffer[] allocations;
+        synchronized (this) {
+            allocations = this.allocations;
+            this.allocations = null;
+            buffers = null;
+        }
+        if (allocations == null || INVOKE_CLEANER == null) {
+            return;
+        }
+        for (ByteBuffer buffer : allocations) {
+            try {
+                INVOKE_CLEANER.invokeExact(buffer);
+            } catch (Throwable t) {
+                throw new IllegalStateException("Failed to free a buffer", t);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.pr0methean.util;
+
+import static org.testng.Assert.assertTrue;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.annotations.Test;
+
+public class AtomicIntArrayListTest extends JSR166TestCase {
+
+    static AtomicIntArrayList populatedList(int n) {
+        AtomicIntArrayList a = new AtomicIntArrayList();
+        assertTrue(a.isEmpty());
+        for (int i = 0; i < n; i++) {
+            a.addInt(i);
+        }
+        assertEquals(n, a.size());
+        return a;
+    }
+
+    /**
+     * appended elements keep their indices as the array grows
+     */
+    @Test
+    public void testAddLongGrows() {
+        AtomicIntArrayList a = populatedList(1_000);
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, a.getInt(i));
+            assertEquals(Integer.valueOf(i), a.get(i));
+        }
+    }
+
+    /**
+     * varargs constructor holds all elements in order
+     */
+    @Test
+    public void testConstructor() {
+        assertEquals(Arrays.asList(3, 1, 2), new AtomicIntArrayList(3, 1, 2));
+    }
+
+    /**
+     * inserting and removing in the middle matches an ArrayList
+     */
+    @Test
+    public void testAddAndRemoveIndex() {
+        AtomicIntArrayList a = populatedList(SIZE);
+        List<Integer> expected = new ArrayList<>(a);
+        a.addInt(3, -1);
+        expected.add(3, -1);
+        a.add(0, -2);
+        expected.add(0, -2);
+        assertEquals(expected, a);
+        assertEquals(-1, a.removeInt(4));
+        expected.remove(4);
+        assertEquals(Integer.valueOf(-2), a.remove(0));
+        expected.remove(0);
+        assertEquals(expected, a);
+        a.clear();
+        assertTrue(a.isEmpty());
+    }
+
+    /**
+     * setInt past the end extends the list with zeroes
+     */
+    @Test
+    public void testSetLongExtends() {
+        AtomicIntArrayList a = populatedList(3);
+        assertEquals(0, a.setInt(5, 9));
+        assertEquals(Arrays.asList(0, 1, 2, 0, 0, 9), a);
+    }
+
+    /**
+     * getAndAdd and incrementAndGet are atomic and reject indices past the end
+     */
+    @Test
+    public void testGetAndAdd() {
+        AtomicIntArrayList a = populatedList(2);
+        assertEquals(1, a.getAndAdd(1, 5));
+        assertEquals(7, a.incrementAndGet(1));
+        assertEquals(6, a.decrementAndGet(1));
+        try {
+            a.getAndAdd(2, 1);
+            shouldThrow();
+        } catch (IndexOutOfBoundsException success) {}
+    }
+
+    /**
+     * concurrent increments and appends are all counted
+     */
+    @Test
+    public void testConcurrentIncrementAndAdd() {
+        final int threads = 4;
+        final int perThread = 10_000;
+        final AtomicIntArrayList list = populatedList(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = newStartedThread(new CheckedRunnable() {
+                public void realRun() {
+                    for (int i = 0; i < perThread; i++) {
+                        list.incrementAndGet(0);
+                        list.addInt(1);
+                    }
+                }
+            });
+        }
+        for (Thread worker : workers) {
+            awaitTermination(worker, 10_000);
+        }
+        assertEquals(threads * perThread, list.getInt(0));
+        assertEquals(threads * perThread + 1, list.size());
+        assertEquals(2L * threads * perThread, list.stream().mapToLong(Integer::longValue).sum());
+    }
+
+    /**
+     * the fixed-size list updates elements in place and never changes size
+     */
+    @Test
+    public void testFixedSize() {
+        FixedSizeAtomicIntArrayList a = new FixedSizeAtomicIntArrayList(3);
+        assertEquals(3, a.size());
+        assertEquals(0, a.setInt(1, 4));
+        assertEquals(4, a.getAndAdd(1, 2));
+        assertEquals(7, a.incrementAndGet(1));
+        assertEquals(Arrays.asList(0, 7, 0), a);
+        try {
+            a.add(1);
+            shouldThrow();
+        } catch (UnsupportedOperationException success) {}
+    }
+}
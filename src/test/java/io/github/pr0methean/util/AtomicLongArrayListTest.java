@@ -0,0 +1,203 @@
+package io.github.pr0methean.util;
+
+import static org.testng.Assert.assertTrue;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.testng.annotations.Test;
+
+public class AtomicLongArrayListTest extends JSR166TestCase {
+
+    static AtomicLongArrayList populatedList(int n) {
+        AtomicLongArrayList a = new AtomicLongArrayList();
+        assertTrue(a.isEmpty());
+        for (int i = 0; i < n; i++) {
+            a.addLong(i);
+        }
+        assertEquals(n, a.size());
+        return a;
+    }
+
+    /**
+     * appended elements keep their indices as the array grows
+     */
+    @Test
+    public void testAddLongGrows() {
+        AtomicLongArrayList a = populatedList(1_000);
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, a.getLong(i));
+            assertEquals(Long.valueOf(i), a.get(i));
+        }
+    }
+
+    /**
+     * varargs constructor holds all elements in order
+     */
+    @Test
+    public void testConstructor() {
+        assertEquals(Arrays.asList(3L, 1L, 2L), new AtomicLongArrayList(3L, 1L, 2L));
+    }
+
+    /**
+     * inserting and removing in the middle matches an ArrayList
+     */
+    @Test
+    public void testAddAndRemoveIndex() {
+        AtomicLongArrayList a = populatedList(SIZE);
+        List<Long> expected = new ArrayList<>(a);
+        a.addLong(3, -1);
+        expected.add(3, -1L);
+        a.add(0, -2L);
+        expected.add(0, -2L);
+        assertEquals(expected, a);
+        assertEquals(-1, a.removeLong(4));
+        expected.remove(4);
+        assertEquals(Long.valueOf(-2), a.remove(0));
+        expected.remove(0);
+        assertEquals(expected, a);
+        a.clear();
+        assertTrue(a.isEmpty());
+    }
+
+    /**
+     * setLong past the end extends the list with zeroes
+     */
+    @Test
+    public void testSetLongExtends() {
+        AtomicLongArrayList a = populatedList(3);
+        assertEquals(0, a.setLong(5, 9));
+        assertEquals(Arrays.asList(0L, 1L, 2L, 0L, 0L, 9L), a);
+    }
+
+    /**
+     * getAndAdd and incrementAndGet are atomic and reject indices past the end
+     */
+    @Test
+    public void testGetAndAdd() {
+        AtomicLongArrayList a = populatedList(2);
+        assertEquals(1, a.getAndAdd(1, 5));
+        assertEquals(7, a.incrementAndGet(1));
+        assertEquals(6, a.decrementAndGet(1));
+        try {
+            a.getAndAdd(2, 1);
+            shouldThrow();
+        } catch (IndexOutOfBoundsException success) {}
+    }
+
+    /**
+     * concurrent increments and appends are all counted
+     */
+    @Test
+    public void testConcurrentIncrementAndAdd() {
+        final int threads = 4;
+        final int perThread = 10_000;
+        final AtomicLongArrayList list = populatedList(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = newStartedThread(new CheckedRunnable() {
+                public void realRun() {
+                    for (int i = 0; i < perThread; i++) {
+                        list.incrementAndGet(0);
+                        list.addLong(1);
+                    }
+                }
+            });
+        }
+        for (Thread worker : workers) {
+            awaitTermination(worker, 10_000);
+        }
+        assertEquals(threads * perThread, list.getLong(0));
+        assertEquals(threads * perThread + 1, list.size());
+        assertEquals(2L * threads * perThread, list.stream().mapToLong(Long::longValue).sum());
+    }
+
+    /**
+     * the fixed-size list updates elements in place and never changes size
+     */
+    @Test
+    public void testFixedSize() {
+        FixedSizeAtomicLongArrayList a = new FixedSizeAtomicLongArrayList(3);
+        assertEquals(3, a.size());
+        assertEquals(0, a.setLong(1, 4));
+        assertEquals(4, a.getAndAdd(1, 2));
+        assertEquals(7, a.incrementAndGet(1));
+        assertEquals(Arrays.asList(0L, 7L, 0L), a);
+        try {
+            a.add(1L);
+            shouldThrow();
+        } catch (UnsupportedOperationException success) {}
+    }
+
+    /**
+     * the long and int lists, fixed-size or not, offer the same methods, modulo element type, so
+     * that neither drifts from the other
+     */
+    @Test
+    public void testSameMethodsAsIntList() {
+        assertEquals(signatures(AtomicIntArrayList.class, false),
+                signatures(AtomicLongArrayList.class, true));
+        assertEquals(signatures(FixedSizeAtomicIntArrayList.class, false),
+                signatures(FixedSizeAtomicLongArrayList.class, true));
+    }
+
+    /**
+     * Returns the public and protected constructors and methods that {@code c} declares, with any
+     * long types and names rewritten as int ones if {@code fromLong} is true.
+     */
+    private static Set<String> signatures(Class<?> c, boolean fromLong) {
+        Set<String> signatures = new TreeSet<>();
+        for (Constructor<?> constructor : c.getDeclaredConstructors()) {
+            if (isVisible(constructor.getModifiers())) {
+                signatures.add(signature("<init>", constructor.getParameterTypes(), void.class,
+                        fromLong));
+            }
+        }
+        for (Method method : c.getDeclaredMethods()) {
+            if (isVisible(method.getModifiers()) && !method.isSynthetic()) {
+                signatures.add(signature(method.getName(), method.getParameterTypes(),
+                        method.getReturnType(), fromLong));
+            }
+        }
+        return signatures;
+    }
+
+    private static boolean isVisible(int modifiers) {
+        return Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers);
+    }
+
+    private static String signature(String name, Class<?>[] parameterTypes, Class<?> returnType,
+            boolean fromLong) {
+        StringBuilder signature = new StringBuilder(fromLong ? name.replace("Long", "Int") : name)
+                .append('(');
+        for (Class<?> type : parameterTypes) {
+            signature.append(typeName(type, fromLong)).append(',');
+        }
+        return signature.append(')').append(typeName(returnType, fromLong)).toString();
+    }
+
+    private static String typeName(Class<?> type, boolean fromLong) {
+        String name = type.getSimpleName();
+        if (!fromLong) {
+            return name;
+        }
+        switch (name) {
+            case "long":
+                return "int";
+            case "long[]":
+                return "int[]";
+            case "Long":
+                return "Integer";
+            case "AtomicLongArray":
+                return "AtomicIntegerArray";
+            default:
+                return name.replace("AtomicLongArrayList", "AtomicIntArrayList");
+        }
+    }
+}
@@ -7,6 +7,11 @@ import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.AssertJUnit.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -16,6 +21,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.testng.annotations.Test;
 
 /**
@@ -92,6 +101,206 @@ public class AtomicReferenceArrayListTest extends JSR166TestCase {
         assertEquals(9, full.size());
     }
 
+    /**
+     * addAll of a collection larger than the spare capacity grows the list to fit it
+     */
+    @Test
+    public void testAddAllGrows() {
+        AtomicReferenceArrayList<Integer> full = populatedArray(3);
+        List<Integer> batch = new ArrayList<>();
+        for (int i = 3; i < 1000; i++) {
+            batch.add(i);
+        }
+        assertTrue(full.addAll(batch));
+        assertEquals(1000, full.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) full.get(i));
+        }
+        assertFalse(full.addAll(Collections.<Integer>emptyList()));
+    }
+
+    /**
+     * addAll at an index inserts the collection there and shifts the rest
+     */
+    @Test
+    public void testAddAllIndex() {
+        AtomicReferenceArrayList<Integer> full = populatedArray(3);
+        assertTrue(full.addAll(1, Arrays.asList(m1, m2, m3)));
+        assertEquals(Arrays.asList(zero, m1, m2, m3, one, two), full);
+        assertTrue(full.addAll(6, Arrays.asList(m4)));
+        assertEquals(Arrays.asList(zero, m1, m2, m3, one, two, m4), full);
+        assertFalse(full.addAll(0, Collections.<Integer>emptyList()));
+        assertEquals(7, full.size());
+    }
+
+    /**
+     * an append that fails while growing the array doesn't leave a slot that later appends wait
+     * for forever
+     */
+    @Test
+    public void testFailedGrowthDoesNotBlockAppends() {
+        final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(1);
+        list.add(zero);
+        list.setGrowthPolicy((currentCapacity, minCapacity) -> {
+            throw new IllegalStateException();
+        });
+        try {
+            list.addAll(Arrays.asList(one, two));
+            shouldThrow();
+        } catch (IllegalStateException success) {}
+        try {
+            list.add(one);
+            shouldThrow();
+        } catch (IllegalStateException success) {}
+        list.setGrowthPolicy(GrowthPolicy.DOUBLING);
+        Thread adder = newStartedThread(new CheckedRunnable() {
+            public void realRun() {
+                list.add(one);
+                list.addAll(Arrays.asList(two, three));
+                list.add(0, m1);
+            }
+        });
+        awaitTermination(adder, 10_000);
+        assertEquals(Arrays.asList(m1, zero, one, two, three), list);
+    }
+
+    /**
+     * a resize whose new array can't be allocated is abandoned, so that a later one can start
+     */
+    @Test
+    public void testFailedAllocationDoesNotBlockGrowth() {
+        final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(1);
+        list.add(zero);
+        try {
+            // Larger than the VM allows any array to be, so this fails without using up the heap
+            list.ensureCapacity(Integer.MAX_VALUE);
+            shouldThrow();
+        } catch (OutOfMemoryError success) {}
+        Thread adder = newStartedThread(new CheckedRunnable() {
+            public void realRun() {
+                list.ensureCapacity(100);
+                list.addAll(Arrays.asList(one, two));
+            }
+        });
+        awaitTermination(adder, 10_000);
+        assertEquals(Arrays.asList(zero, one, two), list);
+    }
+
+    /**
+     * on an indexed list, an element whose hashCode throws is rejected without leaving a slot
+     * that later appends and removals wait for forever
+     */
+    @Test
+    public void testUnhashableElementDoesNotBlockIndexedList() {
+        final AtomicReferenceArrayList<Object> list = new AtomicReferenceArrayList<>(1, true);
+        final Object unhashable = new Object() {
+            @Override
+            public int hashCode() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        list.add(zero);
+        try {
+            list.add(unhashable);
+            shouldThrow();
+        } catch (UnsupportedOperationException success) {}
+        try {
+            list.addAll(Arrays.asList(one, unhashable));
+            shouldThrow();
+        } catch (UnsupportedOperationException success) {}
+        // Passes the check before the slot is claimed, then fails while being indexed, so the
+        // slot is published as null
+        final AtomicInteger hashes = new AtomicInteger();
+        Object flaky = new Object() {
+            @Override
+            public int hashCode() {
+                if (hashes.incrementAndGet() > 1) {
+                    throw new UnsupportedOperationException();
+                }
+                return 1;
+            }
+        };
+        try {
+            list.add(flaky);
+            shouldThrow();
+        } catch (UnsupportedOperationException success) {}
+        assertEquals(Arrays.asList(zero, null), list);
+        Thread writer = newStartedThread(new CheckedRunnable() {
+            public void realRun() {
+                list.add(one);
+                list.addAll(Arrays.asList(two, three));
+                list.remove(0);
+                list.add(0, m1);
+            }
+        });
+        awaitTermination(writer, 10_000);
+        assertEquals(Arrays.asList(m1, null, one, two, three), list);
+        assertEquals(3, list.indexOf(two));
+        assertEquals(1, list.indexOf(null));
+    }
+
+    /**
+     * concurrent adds from several threads all land in the list exactly once
+     */
+    @Test
+    public void testConcurrentAdd() {
+        final int threads = 8;
+        final int perThread = 1000;
+        final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>();
+        Thread[] adders = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int base = t * perThread;
+            adders[t] = newStartedThread(new CheckedRunnable() {
+                public void realRun() {
+                    for (int i = 0; i < perThread; i++) {
+                        list.add(base + i);
+                    }
+                }
+            });
+        }
+        for (Thread adder : adders) {
+            awaitTermination(adder, 10_000);
+        }
+        assertEquals(threads * perThread, list.size());
+        boolean[] seen = new boolean[threads * perThread];
+        for (int i = 0; i < list.size(); i++) {
+            int value = list.get(i);
+            assertFalse(seen[value]);
+            seen[value] = true;
+        }
+    }
+
+    /**
+     * readers see every published element while the list grows underneath them
+     */
+    @Test
+    public void testGetDuringConcurrentGrowth() {
+        final int n = 100_000;
+        final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>();
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = newStartedThread(new CheckedRunnable() {
+                public void realRun() {
+                    int size;
+                    while ((size = list.size()) < n) {
+                        for (int i = Math.max(0, size - 64); i < size; i++) {
+                            threadAssertEquals(i, list.get(i).intValue());
+                        }
+                    }
+                }
+            });
+        }
+        for (int i = 0; i < n; i++) {
+            list.add(i);
+        }
+        for (Thread reader : readers) {
+            awaitTermination(reader, 10_000);
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, (int) list.get(i));
+        }
+    }
+
     /**
      * addAllAbsent adds each element from the given collection that did not
      * already exist in the List
@@ -106,6 +315,16 @@ public class AtomicReferenceArrayListTest extends JSR166TestCase {
         assertEquals(5, full.size());
     }
 
+    /**
+     * addAllAbsent adds elements repeated within the given collection only once, in order
+     */
+    @Test
+    public void testAddAllAbsentDuplicatesInCollection() {
+        AtomicReferenceArrayList<Integer> full = populatedArray(3);
+        assertEquals(3, full.addAllAbsent(Arrays.asList(five, one, three, five, null, null)));
+        assertEquals(Arrays.asList(zero, one, two, five, three, null), full);
+    }
+
     /**
      * addIfAbsent will not add the element if it already exists in the list
      */
@@ -126,6 +345,38 @@ public class AtomicReferenceArrayListTest extends JSR166TestCase {
         assertTrue(full.contains(three));
     }
 
+    /**
+     * an element set into the list before addIfAbsent or addAllAbsent finishes is never added a
+     * second time
+     */
+    @Test
+    public void testAddIfAbsentDuringConcurrentSet() {
+        final int n = 100_000;
+        for (int trial = 0; trial < 20; trial++) {
+            final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>();
+            for (int i = 0; i < n; i++) {
+                list.add(i);
+            }
+            final AtomicInteger sizeAfterSet = new AtomicInteger();
+            Thread setter = newStartedThread(new CheckedRunnable() {
+                public void realRun() {
+                    list.set(0, m1);
+                    sizeAfterSet.set(list.size());
+                }
+            });
+            if (trial % 2 == 0) {
+                list.addAllAbsent(Arrays.asList(m1, m2));
+            } else {
+                list.addIfAbsent(m1);
+            }
+            awaitTermination(setter);
+            if (sizeAfterSet.get() == n) {
+                // The set finished before the append, so the append must have seen it
+                assertTrue(list.size() == n || !m1.equals(list.get(n)));
+            }
+        }
+    }
+
     /**
      * clear removes all elements from the list
      */
@@ -250,6 +501,80 @@ public class AtomicReferenceArrayListTest extends JSR166TestCase {
         assertEquals(-1, full.indexOf(one, 2));
     }
 
+    /**
+     * an indexed list answers contains, indexOf and lastIndexOf the same way as an ArrayList
+     * through every kind of write
+     */
+    @Test
+    public void testIndexedLookups() {
+        AtomicReferenceArrayList<Integer> indexed = new AtomicReferenceArrayList<>(1, true);
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(42);
+        for (int step = 0; step < 2000; step++) {
+            Integer value = random.nextInt(10) == 0 ? null : random.nextInt(20);
+            int op = random.nextInt(8);
+            if (op < 3 || expected.isEmpty()) {
+                indexed.add(value);
+                expected.add(value);
+            } else if (op == 3) {
+                int index = random.nextInt(expected.size() + 1);
+                indexed.add(index, value);
+                expected.add(index, value);
+            } else if (op == 4) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, value), indexed.set(index, value));
+            } else if (op == 5) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), indexed.remove(index));
+            } else if (op == 6) {
+                assertEquals(expected.addAll(Arrays.asList(value, value)),
+                        indexed.addAll(Arrays.asList(value, value)));
+            } else if (step % 500 == 0) {
+                indexed.clear();
+                expected.clear();
+            }
+            for (Integer probe : Arrays.asList(null, 0, 5, 19, 25)) {
+                assertEquals(expected.contains(probe), indexed.contains(probe));
+                assertEquals(expected.indexOf(probe), indexed.indexOf(probe));
+                assertEquals(expected.lastIndexOf(probe), indexed.lastIndexOf(probe));
+            }
+        }
+        assertEquals(expected, indexed);
+    }
+
+    /**
+     * addIfAbsent and addAllAbsent use the index of an indexed list
+     */
+    @Test
+    public void testIndexedAddIfAbsent() {
+        AtomicReferenceArrayList<Integer> indexed = new AtomicReferenceArrayList<>(1, true);
+        indexed.addAll(Arrays.asList(zero, one, two));
+        assertFalse(indexed.addIfAbsent(one));
+        assertTrue(indexed.addIfAbsent(three));
+        assertEquals(2, indexed.addAllAbsent(Arrays.asList(three, four, one, five)));
+        assertEquals(Arrays.asList(zero, one, two, three, four, five), indexed);
+        assertEquals(5, indexed.indexOf(five));
+    }
+
+    /**
+     * searches above the parallel threshold find the same positions as sequential ones
+     */
+    @Test
+    public void testParallelSearch() {
+        AtomicReferenceArrayList<Integer> full = new AtomicReferenceArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            full.add(i % 100);
+        }
+        full.setParallelSearchThreshold(10);
+        assertEquals(42, full.indexOf(42));
+        assertEquals(942, full.lastIndexOf(42));
+        assertEquals(142, full.indexOf(42, 43));
+        assertEquals(842, full.lastIndexOf(42, 941));
+        assertEquals(-1, full.indexOf(100));
+        assertEquals(-1, full.lastIndexOf(100));
+        assertTrue(full.contains(99));
+    }
+
     /**
      * isEmpty returns true when empty, else false
      */
@@ -288,6 +613,371 @@ public class AtomicReferenceArrayListTest extends JSR166TestCase {
         assertIteratorExhausted(it);
     }
 
+    /**
+     * iterating while other threads insert and remove elements never throws
+     */
+    @Test
+    public void testIteratorDuringConcurrentWrites() {
+        final AtomicReferenceArrayList<Integer> list = populatedArray(SIZE);
+        Thread writer = newStartedThread(new CheckedRunnable() {
+            public void realRun() {
+                for (int i = 0; i < 10_000; i++) {
+                    list.add(0, i);
+                    list.add(i);
+                    list.remove(list.size() / 2);
+                    list.remove(0);
+                }
+            }
+        });
+        while (writer.isAlive()) {
+            int count = 0;
+            for (Integer ignored : list) {
+                count++;
+            }
+            assertTrue(count <= SIZE + 2);
+        }
+        awaitTermination(writer, 10_000);
+        assertEquals(SIZE, list.size());
+    }
+
+    /**
+     * a list iterator moves in both directions
+     */
+    @Test
+    public void testListIteratorPrevious() {
+        AtomicReferenceArrayList<Integer> full = populatedArray(3);
+        ListIterator<Integer> it = full.listIterator(3);
+        assertFalse(it.hasNext());
+        assertEquals(2, it.previousIndex());
+        assertEquals(two, it.previous());
+        assertEquals(one, it.previous());
+        assertEquals(one, it.next());
+        assertEquals(2, it.nextIndex());
+    }
+
+    /**
+     * a parallel stream sees every element once, and the spliterator splits evenly
+     */
+    @Test
+    public void testParallelStream() {
+        AtomicReferenceArrayList<Integer> full = new AtomicReferenceArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            full.add(i);
+        }
+        assertEquals(49_995_000L, full.parallelStream().mapToLong(Integer::longValue).sum());
+        Spliterator<Integer> right = full.spliterator();
+        assertTrue(right.hasCharacteristics(Spliterator.SIZED | Spliterator.CONCURRENT));
+        Spliterator<Integer> left = right.trySplit();
+        assertEquals(5_000, left.getExactSizeIfKnown());
+        assertEquals(5_000, right.getExactSizeIfKnown());
+    }
+
+    /**
+     * a snapshot is unaffected by later sets, insertions, removals and clear
+     */
+    @Test
+    public void testSnapshot() {
+        AtomicReferenceArrayList<Integer> full = new AtomicReferenceArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            full.add(i);
+        }
+        List<Integer> expected = new ArrayList<>(full);
+        List<Integer> snapshot = full.snapshot();
+        full.set(10, m1);
+        full.add(2_000, m2);
+        full.remove(4_000);
+        full.add(m3);
+        assertEquals(expected, snapshot);
+        List<Integer> expected2 = new ArrayList<>(full);
+        List<Integer> snapshot2 = full.snapshot();
+        full.set(3_000, m4);
+        full.removeAll(expected.subList(100, 200));
+        assertEquals(expected, snapshot);
+        assertEquals(expected2, snapshot2);
+        full.clear();
+        full.add(m5);
+        assertEquals(expected, snapshot);
+        assertEquals(expected2, snapshot2);
+        try {
+            snapshot.set(0, m1);
+            shouldThrow();
+        } catch (UnsupportedOperationException success) {}
+    }
+
+    /**
+     * a snapshot stays consistent while other threads overwrite and append
+     */
+    @Test
+    public void testSnapshotDuringConcurrentWrites() {
+        final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            list.add(0);
+        }
+        final List<Integer> snapshot = list.snapshot();
+        Thread writer = newStartedThread(new CheckedRunnable() {
+            public void realRun() {
+                for (int i = 0; i < 10_000; i++) {
+                    list.set(i, 1);
+                    list.add(1);
+                }
+            }
+        });
+        for (int pass = 0; pass < 10; pass++) {
+            for (int value : snapshot) {
+                assertEquals(0, value);
+            }
+        }
+        awaitTermination(writer, 10_000);
+        assertEquals(10_000, snapshot.size());
+        assertEquals(20_000, list.size());
+    }
+
+    /**
+     * removeIf, replaceAll, sort and forEach match their effect on an ArrayList
+     */
+    @Test
+    public void testBulkOperations() {
+        AtomicReferenceArrayList<Integer> full = new AtomicReferenceArrayList<>(1, true);
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000; i++) {
+            Integer value = random.nextInt(100);
+            full.add(value);
+            expected.add(value);
+        }
+        assertTrue(full.removeIf(value -> value % 3 == 0));
+        expected.removeIf(value -> value % 3 == 0);
+        assertFalse(full.removeIf(value -> value % 3 == 0));
+        assertEquals(expected, full);
+        full.replaceAll(value -> value * 2);
+        expected.replaceAll(value -> value * 2);
+        assertEquals(expected, full);
+        full.sort(null);
+        Collections.sort(expected);
+        assertEquals(expected, full);
+        assertEquals(expected.indexOf(20), full.indexOf(20));
+        assertEquals(expected.lastIndexOf(20), full.lastIndexOf(20));
+        assertEquals(-1, full.indexOf(3));
+        List<Integer> seen = new ArrayList<>();
+        full.forEach(seen::add);
+        assertEquals(expected, seen);
+    }
+
+    /**
+     * compareAndSet only succeeds for the current element, keeps the index up to date, and rejects
+     * indices past the end
+     */
+    @Test
+    public void testCompareAndSet() {
+        AtomicReferenceArrayList<Integer> full = new AtomicReferenceArrayList<>(1, true);
+        full.add(one);
+        full.add(two);
+        assertTrue(full.compareAndSet(1, two, three));
+        assertFalse(full.compareAndSet(1, two, four));
+        assertEquals(three, full.get(1));
+        assertEquals(-1, full.indexOf(two));
+        assertEquals(1, full.indexOf(three));
+        assertEquals(one, full.getAndUpdate(0, value -> value + 4));
+        assertEquals(6, (int) full.updateAndGet(0, value -> value + 1));
+        assertEquals(9, (int) full.accumulateAndGet(0, three, Integer::sum));
+        assertEquals(0, full.indexOf(9));
+        try {
+            full.compareAndSet(2, null, one);
+            shouldThrow();
+        } catch (IndexOutOfBoundsException success) {}
+    }
+
+    /**
+     * concurrent updateAndGet calls are all applied, even while the array grows
+     */
+    @Test
+    public void testConcurrentUpdateAndGet() {
+        final int threads = 4;
+        final int perThread = 5_000;
+        final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>();
+        list.add(0);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = newStartedThread(new CheckedRunnable() {
+                public void realRun() {
+                    for (int i = 0; i < perThread; i++) {
+                        list.updateAndGet(0, value -> value + 1);
+                        list.add(i);
+                    }
+                }
+            });
+        }
+        for (Thread worker : workers) {
+            awaitTermination(worker, 10_000);
+        }
+        assertEquals(threads * perThread, (int) list.get(0));
+    }
+
+    /**
+     * the relaxed accessors read and write the same elements as get and set, but don't extend the
+     * list
+     */
+    @Test
+    public void testRelaxedAccessors() {
+        AtomicReferenceArrayList<Integer> full = new AtomicReferenceArrayList<>(1, true);
+        for (int i = 0; i < SIZE; i++) {
+            full.add(i);
+        }
+        full.setRelease(1, m1);
+        full.lazySet(2, m2);
+        assertEquals(m1, full.getAcquire(1));
+        assertEquals(m2, full.getOpaque(2));
+        assertEquals(2, full.indexOf(m2));
+        assertEquals(-1, full.indexOf(one));
+        try {
+            full.setRelease(SIZE, m3);
+            shouldThrow();
+        } catch (IndexOutOfBoundsException success) {}
+        try {
+            full.getAcquire(SIZE);
+            shouldThrow();
+        } catch (IndexOutOfBoundsException success) {}
+    }
+
+    /**
+     * ensureCapacity, trimToSize, clear(true) and the growth policy set the backing array's length
+     * without changing the contents
+     */
+    @Test
+    public void testCapacity() {
+        AtomicReferenceArrayList<Integer> full = new AtomicReferenceArrayList<>();
+        full.ensureCapacity(100);
+        assertTrue(full.array.length() >= 100);
+        assertTrue(full.isEmpty());
+        for (int i = 0; i < 10; i++) {
+            full.add(i);
+        }
+        full.trimToSize();
+        assertEquals(10, full.array.length());
+        full.setGrowthPolicy(GrowthPolicy.additive(5));
+        full.add(10);
+        assertEquals(15, full.array.length());
+        full.add(5, m1);
+        assertEquals(m1, full.get(5));
+        assertEquals(12, full.size());
+        full.clear(true);
+        assertTrue(full.isEmpty());
+        assertEquals(15, full.array.length());
+        full.add(one);
+        assertEquals(Arrays.asList(one), full);
+        full.clear();
+        assertEquals(1, full.array.length());
+        full.trimToSize();
+        assertEquals(0, full.array.length());
+        full.add(two);
+        assertEquals(Arrays.asList(two), full);
+    }
+
+    /**
+     * with lazy removal, random removals leave the same elements as on an ArrayList, both before
+     * and after compaction, and other operations see the compacted list
+     */
+    @Test
+    public void testLazyRemoval() {
+        AtomicReferenceArrayList<Integer> full = new AtomicReferenceArrayList<>(1, true, true);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            full.add(i);
+            expected.add(i);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            int index = random.nextInt(expected.size());
+            assertEquals(expected.remove(index), full.remove(index));
+            assertEquals(expected.size(), full.size());
+            int probe = random.nextInt(expected.size());
+            assertEquals(expected.get(probe), full.get(probe));
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), full.get(i));
+        }
+        try {
+            full.get(expected.size());
+            shouldThrow();
+        } catch (IndexOutOfBoundsException success) {}
+        int removed = expected.remove(10);
+        full.remove(10);
+        assertEquals(-1, full.indexOf(removed));
+        assertEquals(expected.indexOf(expected.get(20)), full.indexOf(expected.get(20)));
+        full.remove(0);
+        expected.remove(0);
+        full.add(m1);
+        expected.add(m1);
+        assertEquals(expected, full);
+        full.remove(5);
+        expected.remove(5);
+        full.compact();
+        assertEquals(expected, full);
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            assertEquals(expected.remove(i), full.remove(i));
+        }
+        assertTrue(full.isEmpty());
+    }
+
+    /**
+     * with lazy removal, readers see the elements shift in order while another thread removes from
+     * the front
+     */
+    @Test
+    public void testLazyRemovalDuringConcurrentReads() {
+        final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(1, false, true);
+        for (int i = 0; i < 10_000; i++) {
+            list.add(i);
+        }
+        Thread remover = newStartedThread(new CheckedRunnable() {
+            public void realRun() {
+                for (int i = 0; i < 9_000; i++) {
+                    assertEquals(i, (int) list.remove(0));
+                }
+            }
+        });
+        int previous = 500;
+        while (remover.isAlive()) {
+            // The remover never shrinks the list below 1000 elements, and each removal shifts
+            // a higher one into this index
+            int value = list.get(500);
+            assertTrue(value >= previous);
+            previous = value;
+        }
+        awaitTermination(remover, 10_000);
+        assertEquals(1_000, list.size());
+        assertEquals(9_000, (int) list.get(0));
+    }
+
+    /**
+     * with lazy removal, searches and iterators never see tombstoned slots while another thread
+     * removes from the front
+     */
+    @Test
+    public void testLazyRemovalDuringConcurrentSearches() {
+        final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(1, false, true);
+        for (int i = 0; i < 10_000; i++) {
+            list.add(i);
+        }
+        final AtomicInteger removed = new AtomicInteger();
+        Thread remover = newStartedThread(new CheckedRunnable() {
+            public void realRun() {
+                for (int i = 0; i < 9_000; i++) {
+                    list.remove(0);
+                    removed.incrementAndGet();
+                }
+            }
+        });
+        while (remover.isAlive()) {
+            int before = removed.get();
+            assertTrue(list.indexOf(9_999) <= 9_999 - before);
+            assertTrue(list.iterator().next() >= before);
+            assertTrue(list.stream().findFirst().get() >= before);
+        }
+        awaitTermination(remover, 10_000);
+        assertEquals(999, list.indexOf(9_999));
+    }
+
     private static void assertIteratorExhausted(Iterator it) {
         assertFalse(it.hasNext(), "Iterator not exhausted when expected");
     }
@@ -805,5 +1495,202 @@ public class AtomicReferenceArrayListTest extends JSR166TestCase {
         }
         assertTrue(y.isEmpty());
     }
+
+    /**
+     * the list is RandomAccess and its list iterator supports set, so the JDK's bulk algorithms
+     * work on it at any size
+     */
+    @Test
+    public void testCollectionsAlgorithms() {
+        AtomicReferenceArrayList<Integer> full = new AtomicReferenceArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            full.add(i);
+            expected.add(i);
+        }
+        assertTrue(full instanceof RandomAccess);
+        Collections.reverse(full);
+        Collections.reverse(expected);
+        assertEquals(expected, full);
+        Collections.shuffle(full, new Random(42));
+        Collections.shuffle(expected, new Random(42));
+        assertEquals(expected, full);
+        Collections.sort(full);
+        assertEquals(100, full.size());
+        assertEquals(zero, full.get(0));
+
+        ListIterator<Integer> it = full.listIterator();
+        try {
+            it.set(m1);
+            shouldThrow();
+        } catch (IllegalStateException success) {}
+        it.next();
+        it.set(m1);
+        it.next();
+        it.previous();
+        it.set(m2);
+        assertEquals(m1, full.get(0));
+        assertEquals(m2, full.get(1));
+    }
+
+    private static int serializedLength(Object o) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(o);
+        }
+        return bos.size();
+    }
+
+    /**
+     * a list is serialized without its unused capacity or tombstones, even after a snapshot, and
+     * comes back with the same elements and settings
+     */
+    @Test
+    public void testCompactSerialization() throws Exception {
+        AtomicReferenceArrayList<Integer> x = new AtomicReferenceArrayList<>(100_000, true, true);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            x.add(i);
+            expected.add(i);
+        }
+        x.remove(3);
+        expected.remove(3);
+        x.snapshot();
+        x.setGrowthPolicy(GrowthPolicy.additive(7));
+        x.setParallelSearchThreshold(5);
+        assertTrue(serializedLength(x) < serializedLength(new ArrayList<>(expected)) + 2_048);
+
+        AtomicReferenceArrayList<Integer> y = serialClone(x);
+        assertEquals(expected, y);
+        assertEquals(expected.size(), y.array.length());
+        assertEquals(5, y.getParallelSearchThreshold());
+        assertEquals(17, y.getGrowthPolicy().newCapacity(10, 11));
+        assertEquals(998, y.indexOf(999));
+        assertEquals(zero, y.remove(0));
+        expected.remove(0);
+        assertEquals(expected, y);
+        y.add(m1);
+        assertEquals(expected.size() + 1, y.size());
+    }
+
+    /**
+     * a list too large to presize from its serialized size is still read back without unused
+     * capacity
+     */
+    @Test
+    public void testLargeSerialization() {
+        AtomicReferenceArrayList<Integer> x = new AtomicReferenceArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            x.add(i);
+        }
+        x.setGrowthPolicy(GrowthPolicy.additive(7));
+        AtomicReferenceArrayList<Integer> y = serialClone(x);
+        assertEquals(x, y);
+        assertEquals(100_000, y.array.length());
+    }
+
+    /**
+     * a stream claiming more elements than it holds fails to deserialize without allocating
+     * for all of them
+     */
+    @Test
+    public void testForgedSerializedSize() throws Exception {
+        AtomicReferenceArrayList<Integer> x = new AtomicReferenceArrayList<>();
+        for (int i = 0; i < 0x0102; i++) {
+            x.add(zero);
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(x);
+        }
+        byte[] bytes = bos.toByteArray();
+        int found = 0;
+        for (int i = 0; i + 4 <= bytes.length; i++) {
+            if (bytes[i] == 0 && bytes[i + 1] == 0 && bytes[i + 2] == 1 && bytes[i + 3] == 2) {
+                bytes[i] = 0x7f;
+                bytes[i + 1] = bytes[i + 2] = bytes[i + 3] = (byte) 0xff;
+                found++;
+            }
+        }
+        assertEquals(1, found);
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            ois.readObject();
+            shouldThrow();
+        } catch (IOException success) {}
+    }
+
+    /**
+     * toArray, toArray(T[]) and clone never see a half-finished insertion or removal
+     */
+    @Test
+    public void testBulkReadsDuringConcurrentShifts() {
+        final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            list.add(i);
+        }
+        final List<Integer> before = new ArrayList<>(list);
+        final List<Integer> during = new ArrayList<>(list);
+        during.add(0, m1);
+        Thread shifter = newStartedThread(new CheckedRunnable() {
+            public void realRun() {
+                for (int i = 0; i < 2_000; i++) {
+                    list.add(0, m1);
+                    list.remove(0);
+                }
+            }
+        });
+        while (shifter.isAlive()) {
+            List<Integer> copy = Arrays.asList(list.toArray(new Integer[0]));
+            assertTrue(copy.equals(before) || copy.equals(during));
+            List<Object> untyped = Arrays.asList(list.toArray());
+            assertTrue(untyped.equals(before) || untyped.equals(during));
+            AtomicReferenceArrayList<Integer> clone = list.clone();
+            assertTrue(clone.equals(before) || clone.equals(during));
+        }
+        awaitTermination(shifter);
+        assertEquals(before, list);
+    }
+
+    /**
+     * getRange copies a window into the start of the destination and checks its bounds; clone keeps
+     * the settings
+     */
+    @Test
+    public void testGetRangeAndClone() {
+        AtomicReferenceArrayList<Integer> full = new AtomicReferenceArrayList<>(1, true, true);
+        for (int i = 0; i < SIZE; i++) {
+            full.add(i);
+        }
+        full.remove(0);
+        Integer[] window = new Integer[5];
+        full.getRange(2, 5, window);
+        assertEquals(Arrays.asList(three, four, five, null, null), Arrays.asList(window));
+        full.getRange(SIZE - 1, SIZE - 1, window);
+        try {
+            full.getRange(0, SIZE, window);
+            shouldThrow();
+        } catch (IndexOutOfBoundsException success) {}
+        try {
+            full.getRange(0, 6, window);
+            shouldThrow();
+        } catch (IndexOutOfBoundsException success) {}
+        try {
+            full.getRange(3, 2, window);
+            shouldThrow();
+        } catch (IndexOutOfBoundsException success) {}
+
+        full.setGrowthPolicy(GrowthPolicy.additive(3));
+        AtomicReferenceArrayList<Integer> clone = full.clone();
+        assertEquals(full, clone);
+        assertEquals(full.size(), clone.array.length());
+        assertEquals(13, clone.getGrowthPolicy().newCapacity(10, 11));
+        assertEquals(0, clone.indexOf(one));
+        clone.remove(0);
+        assertEquals(one, full.get(0));
+        Integer[] exact = new Integer[full.size() + 1];
+        exact[full.size()] = m1;
+        assertSame(exact, full.toArray(exact));
+        assertNull(exact[full.size()]);
+    }
     
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package io.github.pr0methean.util;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import org.testng.annotations.Test;
+
+public class ChunkedAtomicReferenceArrayListTest extends JSR166TestCase {
+
+    static ChunkedAtomicReferenceArrayList<Integer> populatedList(int chunkShift, int n) {
+        ChunkedAtomicReferenceArrayList<Integer> a = new ChunkedAtomicReferenceArrayList<>(chunkShift);
+        assertTrue(a.isEmpty());
+        for (int i = 0; i < n; i++) {
+            a.add(i);
+        }
+        assertEquals(n, a.size());
+        return a;
+    }
+
+    /**
+     * elements added across many chunks keep their indices
+     */
+    @Test
+    public void testAddAndGetAcrossChunks() {
+        ChunkedAtomicReferenceArrayList<Integer> a = populatedList(2, 100);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) a.get(i));
+        }
+    }
+
+    /**
+     * varargs constructor holds all elements in order
+     */
+    @Test
+    public void testConstructor() {
+        Integer[] ints = new Integer[SIZE];
+        for (int i = 0; i < SIZE; ++i)
+            ints[i] = i;
+        assertEquals(Arrays.asList(ints), new ChunkedAtomicReferenceArrayList<>(ints));
+    }
+
+    /**
+     * inserting and removing in the middle shifts elements across chunk boundaries
+     */
+    @Test
+    public void testAddAndRemoveIndex() {
+        ChunkedAtomicReferenceArrayList<Integer> a = populatedList(2, SIZE);
+        List<Integer> expected = new ArrayList<>(a);
+        a.add(3, m1);
+        expected.add(3, m1);
+        a.add(0, m2);
+        expected.add(0, m2);
+        a.add(a.size(), m3);
+        expected.add(m3);
+        assertEquals(expected, a);
+        assertEquals(m1, a.remove(4));
+        expected.remove(4);
+        assertEquals(zero, a.remove(1));
+        expected.remove(1);
+        assertEquals(expected, a);
+    }
+
+    /**
+     * set past the end extends the list
+     */
+    @Test
+    public void testSetExtends() {
+        ChunkedAtomicReferenceArrayList<Integer> a = populatedList(2, 3);
+        a.set(9, nine);
+        assertEquals(10, a.size());
+        assertEquals(nine, a.get(9));
+    }
+
+    /**
+     * clear empties the list, which can then be refilled
+     */
+    @Test
+    public void testClear() {
+        ChunkedAtomicReferenceArrayList<Integer> a = populatedList(2, SIZE);
+        a.clear();
+        assertTrue(a.isEmpty());
+        a.add(one);
+        assertEquals(Arrays.asList(one), a);
+    }
+
+    /**
+     * concurrent adds from several threads all land in the list exactly once
+     */
+    @Test
+    public void testConcurrentAdd() {
+        final int threads = 8;
+        final int perThread = 1000;
+        final ChunkedAtomicReferenceArrayList<Integer> list = new ChunkedAtomicReferenceArrayList<>(3);
+        Thread[] adders = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int base = t * perThread;
+            adders[t] = newStartedThread(new CheckedRunnable() {
+                public void realRun() {
+                    for (int i = 0; i < perThread; i++) {
+                        list.add(base + i);
+                    }
+                }
+            });
+        }
+        for (Thread adder : adders) {
+            awaitTermination(adder, 10_000);
+        }
+        assertEquals(threads * perThread, list.size());
+        boolean[] seen = new boolean[threads * perThread];
+        for (int i = 0; i < list.size(); i++) {
+            int value = list.get(i);
+            assertFalse(seen[value]);
+            seen[value] = true;
+        }
+    }
+
+    /**
+     * the list supports random access, and lock-free reads see the elements shift in order while
+     * another thread removes from the front
+     */
+    @Test
+    public void testGetDuringConcurrentRemoval() {
+        final ChunkedAtomicReferenceArrayList<Integer> list = new ChunkedAtomicReferenceArrayList<>(3);
+        assertTrue(list instanceof RandomAccess);
+        for (int i = 0; i < 2_000; i++) {
+            list.add(i);
+        }
+        Thread remover = newStartedThread(new CheckedRunnable() {
+            public void realRun() {
+                for (int i = 0; i < 1_000; i++) {
+                    assertEquals(i, (int) list.remove(0));
+                }
+            }
+        });
+        int previous = 500;
+        while (remover.isAlive()) {
+            int value = list.get(500);
+            assertTrue(value >= previous);
+            previous = value;
+        }
+        awaitTermination(remover, 10_000);
+        assertEquals(1_500, (int) list.get(500));
+    }
+}
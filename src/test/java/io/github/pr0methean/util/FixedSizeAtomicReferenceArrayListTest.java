@@ -0,0 +1,74 @@
+package io.github.pr0methean.util;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Spliterator;
+import org.testng.annotations.Test;
+
+public class FixedSizeAtomicReferenceArrayListTest extends JSR166TestCase {
+
+    static FixedSizeAtomicReferenceArrayList<Integer> populatedList(int n) {
+        FixedSizeAtomicReferenceArrayList<Integer> a = new FixedSizeAtomicReferenceArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            a.set(i, i);
+        }
+        return a;
+    }
+
+    /**
+     * the spliterator splits evenly and reports an exact size
+     */
+    @Test
+    public void testSpliterator() {
+        FixedSizeAtomicReferenceArrayList<Integer> a = populatedList(100);
+        Spliterator<Integer> right = a.spliterator();
+        assertTrue(right.hasCharacteristics(
+                Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.CONCURRENT));
+        assertEquals(100, right.getExactSizeIfKnown());
+        Spliterator<Integer> left = right.trySplit();
+        assertNotNull(left);
+        assertEquals(50, left.getExactSizeIfKnown());
+        assertEquals(50, right.getExactSizeIfKnown());
+        left.tryAdvance(value -> assertEquals(0, (int) value));
+        right.tryAdvance(value -> assertEquals(50, (int) value));
+    }
+
+    /**
+     * a parallel stream sees every element once
+     */
+    @Test
+    public void testParallelStream() {
+        FixedSizeAtomicReferenceArrayList<Integer> a = populatedList(10_000);
+        assertEquals(49_995_000L, a.parallelStream().mapToLong(Integer::longValue).sum());
+    }
+
+    /**
+     * compareAndSet and the functional updates act on a single element atomically
+     */
+    @Test
+    public void testAtomicUpdates() {
+        FixedSizeAtomicReferenceArrayList<Integer> a = populatedList(3);
+        Integer oldValue = a.get(1);
+        assertTrue(a.compareAndSet(1, oldValue, five));
+        assertFalse(a.compareAndSet(1, oldValue, six));
+        assertEquals(five, a.getAndUpdate(1, value -> value + 1));
+        assertEquals(7, (int) a.updateAndGet(1, value -> value + 1));
+        assertEquals(14, (int) a.accumulateAndGet(1, seven, Integer::sum));
+    }
+
+    /**
+     * the relaxed accessors read and write the same elements as get and set
+     */
+    @Test
+    public void testRelaxedAccessors() {
+        FixedSizeAtomicReferenceArrayList<Integer> a = populatedList(3);
+        a.setRelease(0, m1);
+        a.lazySet(1, m2);
+        assertEquals(m1, a.getAcquire(0));
+        assertEquals(m2, a.getOpaque(1));
+        assertEquals(m2, a.get(1));
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.pr0methean.util;
+
+import static org.testng.Assert.assertTrue;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.annotations.Test;
+
+public class FlightRecorderEventsTest extends JSR166TestCase {
+
+    private static List<RecordedEvent> record(Runnable action) throws Exception {
+        Path file = Files.createTempFile("list-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(FlightRecorderEvents.ResizeEvent.class);
+            recording.enable(FlightRecorderEvents.WriteLockEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * resizes, whether cooperative or under the write lock, record their capacities
+     */
+    @Test
+    public void testResizeEvents() throws Exception {
+        List<RecordedEvent> events = ofType(record(() -> {
+            AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(1);
+            list.add(one);
+            list.set(3, four);
+            list.remove(3);
+            list.trimToSize();
+        }), "io.github.pr0methean.util.Resize");
+        assertEquals(2, events.size());
+        assertEquals(1, events.get(0).getInt("oldCapacity"));
+        assertEquals(4, events.get(0).getInt("newCapacity"));
+        assertEquals(1, events.get(0).getInt("elementsCopied"));
+        assertEquals(4, events.get(1).getInt("oldCapacity"));
+        assertEquals(3, events.get(1).getInt("newCapacity"));
+        assertEquals(3, events.get(1).getInt("elementsCopied"));
+    }
+
+    /**
+     * each write lock hold above the threshold records its operation and the size after it
+     */
+    @Test
+    public void testWriteLockEvents() throws Exception {
+        List<RecordedEvent> events = ofType(record(() -> {
+            AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(one, two);
+            list.add(0, zero);
+            list.remove(1);
+            list.addAllAbsent(List.of(two, three));
+            list.clear();
+        }), "io.github.pr0methean.util.WriteLock");
+        assertEquals(List.of("add(int)", "remove(int)", "addAllAbsent", "clear"),
+                events.stream().map(event -> event.getString("operation"))
+                        .collect(Collectors.toList()));
+        assertEquals(3, events.get(0).getInt("size"));
+        assertEquals(2, events.get(1).getInt("size"));
+        assertEquals(3, events.get(2).getInt("size"));
+        assertEquals(0, events.get(3).getInt("size"));
+        assertTrue(events.get(0).getLong("waitTime") >= 0);
+    }
+}
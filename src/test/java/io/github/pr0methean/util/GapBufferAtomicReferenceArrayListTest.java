@@ -0,0 +1,131 @@
+package io.github.pr0methean.util;
+
+import static org.testng.Assert.assertTrue;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+public class GapBufferAtomicReferenceArrayListTest extends JSR166TestCase {
+
+    /**
+     * random insertions, removals and replacements match an ArrayList
+     */
+    @Test
+    public void testRandomEdits() {
+        GapBufferAtomicReferenceArrayList<Integer> a = new GapBufferAtomicReferenceArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            int op = random.nextInt(4);
+            if (expected.isEmpty() || op == 0) {
+                int index = random.nextInt(expected.size() + 1);
+                a.add(index, i);
+                expected.add(index, i);
+            } else if (op == 1) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), a.remove(index));
+            } else if (op == 2) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, -i), a.set(index, -i));
+            } else {
+                a.add(i);
+                expected.add(i);
+            }
+        }
+        assertEquals(expected, a);
+    }
+
+    /**
+     * edits around a moving cursor keep every element in place
+     */
+    @Test
+    public void testCursorEdits() {
+        GapBufferAtomicReferenceArrayList<Integer> a = new GapBufferAtomicReferenceArrayList<>(1, 2, 3);
+        a.add(1, m1);
+        a.add(2, m2);
+        a.remove(1);
+        a.add(3, m3);
+        assertEquals(Arrays.asList(1, m2, 2, m3, 3), a);
+        a.clear();
+        assertTrue(a.isEmpty());
+        a.add(one);
+        assertEquals(Arrays.asList(one), a);
+    }
+
+    /**
+     * set past the end throws instead of extending the list
+     */
+    @Test
+    public void testSetOutOfBounds() {
+        GapBufferAtomicReferenceArrayList<Integer> a = new GapBufferAtomicReferenceArrayList<>(1, 2, 3);
+        try {
+            a.set(3, m1);
+            shouldThrow();
+        } catch (IndexOutOfBoundsException success) {}
+    }
+
+    /**
+     * readers always see the elements in order while another thread inserts and removes at a
+     * moving cursor, though an element may be seen twice if it shifts between reads
+     */
+    @Test
+    public void testGetDuringConcurrentEdits() {
+        final int n = 1_000;
+        final GapBufferAtomicReferenceArrayList<Integer> list = new GapBufferAtomicReferenceArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(i);
+        }
+        Thread editor = newStartedThread(new CheckedRunnable() {
+            public void realRun() {
+                for (int i = 0; i < 20_000; i++) {
+                    int cursor = i % n;
+                    list.add(cursor, -1);
+                    list.remove(cursor);
+                }
+            }
+        });
+        while (editor.isAlive()) {
+            int previous = -1;
+            for (int i = 0; i < n; i++) {
+                int value = list.get(i);
+                if (value != -1) {
+                    assertTrue(value >= previous);
+                    previous = value;
+                }
+            }
+        }
+        awaitTermination(editor, 10_000);
+        assertEquals(n, list.size());
+    }
+
+    /**
+     * appends never fail while another thread removes from the front, and none are lost
+     */
+    @Test
+    public void testConcurrentAddAndRemove() {
+        final int n = 20_000;
+        final GapBufferAtomicReferenceArrayList<Integer> list = new GapBufferAtomicReferenceArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(i);
+        }
+        Thread remover = newStartedThread(new CheckedRunnable() {
+            public void realRun() {
+                for (int i = 0; i < n; i++) {
+                    list.remove(0);
+                }
+            }
+        });
+        for (int i = 0; i < n; i++) {
+            list.add(n + i);
+        }
+        awaitTermination(remover, 10_000);
+        assertEquals(n, list.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(n + i, (int) list.get(i));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.pr0methean.util;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+
+public class GrowthPolicyTest extends JSR166TestCase {
+
+    /**
+     * factor multiplies and additive adds, without overflowing
+     */
+    @Test
+    public void testFactorAndAdditive() {
+        assertEquals(20, GrowthPolicy.DOUBLING.newCapacity(10, 11));
+        assertEquals(15, GrowthPolicy.factor(1.5).newCapacity(10, 11));
+        assertEquals(110, GrowthPolicy.additive(100).newCapacity(10, 11));
+        assertEquals(Integer.MAX_VALUE,
+                GrowthPolicy.DOUBLING.newCapacity(Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE,
+                GrowthPolicy.additive(100).newCapacity(Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+    }
+
+    /**
+     * capped limits each step but still reaches the needed capacity
+     */
+    @Test
+    public void testCapped() {
+        GrowthPolicy capped = GrowthPolicy.DOUBLING.capped(1_000);
+        assertEquals(20, capped.newCapacity(10, 11));
+        assertEquals(11_000, capped.newCapacity(10_000, 10_001));
+        assertEquals(15_000, capped.newCapacity(10_000, 15_000));
+    }
+
+    /**
+     * capped adds exactly maxIncrement to the current capacity at the boundary, and exactly what's
+     * needed once that's more, without overflowing
+     */
+    @Test
+    public void testCappedBoundaries() {
+        GrowthPolicy capped = GrowthPolicy.DOUBLING.capped(1_000);
+        assertEquals(2_000, capped.newCapacity(1_000, 1_001));
+        assertEquals(2_001, capped.newCapacity(1_001, 1_002));
+        assertEquals(11_000, capped.newCapacity(10_000, 11_000));
+        assertEquals(11_001, capped.newCapacity(10_000, 11_001));
+        assertEquals(Integer.MAX_VALUE,
+                capped.newCapacity(Integer.MAX_VALUE - 10, Integer.MAX_VALUE - 9));
+    }
+
+    /**
+     * invalid parameters are rejected
+     */
+    @Test
+    public void testInvalidParameters() {
+        try {
+            GrowthPolicy.factor(1.0);
+            shouldThrow();
+        } catch (IllegalArgumentException success) {}
+        try {
+            GrowthPolicy.additive(0);
+            shouldThrow();
+        } catch (IllegalArgumentException success) {}
+        try {
+            GrowthPolicy.DOUBLING.capped(0);
+            shouldThrow();
+        } catch (IllegalArgumentException success) {}
+    }
+}
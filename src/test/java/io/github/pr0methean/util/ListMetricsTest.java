@@ -0,0 +1,157 @@
+package io.github.pr0methean.util;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.testng.annotations.Test;
+
+public class ListMetricsTest extends JSR166TestCase {
+
+    /**
+     * a list with metrics enabled reports resizes, shifts, set paths and lock acquisitions, and
+     * stops once the listener is removed
+     */
+    @Test
+    public void testListEvents() {
+        AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(1);
+        ListMetrics metrics = new ListMetrics();
+        list.setMetricsListener(metrics);
+        assertEquals(metrics, list.getMetricsListener());
+        for (int i = 0; i < 5; i++) {
+            list.add(i);
+        }
+        // 1 -> 2 -> 4 -> 8, copying 1 + 2 + 4 elements
+        assertEquals(3, metrics.getResizes());
+        assertEquals(7, metrics.getElementsCopied());
+        assertTrue(metrics.getBytesCopied() >= 7 * 4);
+        assertEquals(5, metrics.getReadLockAcquisitions());
+        list.add(1, m1);
+        list.remove(0);
+        list.remove(list.size() - 1);
+        assertEquals(2, metrics.getShifts());
+        // The removal from the end moves nothing, so it isn't a shift
+        assertEquals(4 + 5, metrics.getElementsShifted());
+        assertEquals(5, metrics.getMaxShiftLength());
+        list.set(0, m2);
+        list.set(10, m3);
+        assertEquals(1, metrics.getSetFastPathHits());
+        assertEquals(1, metrics.getSetSlowPathHits());
+        assertEquals(4, metrics.getResizes());
+        assertEquals(4, metrics.getWriteLockAcquisitions());
+        assertEquals(0, metrics.getContendedLockAcquisitions());
+        assertEquals(0, metrics.getWriteLockWaitNanos());
+
+        list.setMetricsListener(null);
+        list.add(1, m4);
+        list.trimToSize();
+        assertEquals(2, metrics.getShifts());
+        assertEquals(4, metrics.getResizes());
+        metrics.reset();
+        assertEquals(0, metrics.getResizes());
+        assertEquals(0, metrics.getMaxShiftLength());
+        assertEquals(0, metrics.getReadLockAcquisitions());
+    }
+
+    /**
+     * a thread blocked on the write lock records its wait
+     */
+    @Test
+    public void testLockWait() {
+        final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(one, two);
+        final ListMetrics metrics = new ListMetrics();
+        final Thread[] remover = new Thread[1];
+        list.setMetricsListener(new ListMetricsListener() {
+            @Override
+            public void lockAcquired(boolean exclusive, long waitNanos) {
+                metrics.lockAcquired(exclusive, waitNanos);
+                if (!exclusive && remover[0] == null) {
+                    // Keep holding the read lock while another thread asks for the write lock
+                    remover[0] = newStartedThread(new CheckedRunnable() {
+                        public void realRun() {
+                            list.remove(0);
+                        }
+                    });
+                    waitForThreadToEnterWaitState(remover[0], 10_000);
+                }
+            }
+        });
+        list.add(three);
+        awaitTermination(remover[0]);
+        assertEquals(1, metrics.getWriteLockAcquisitions());
+        assertEquals(1, metrics.getContendedLockAcquisitions());
+        assertTrue(metrics.getWriteLockWaitNanos() > 0);
+        assertEquals(Arrays.asList(two, three), list);
+    }
+
+    /**
+     * events from operations that hold the write lock are delivered after it's released, so the
+     * listener can call back into the list
+     */
+    @Test
+    public void testListenerCallsBackIntoList() {
+        final AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(one, two);
+        final List<Integer> seenSizes = new CopyOnWriteArrayList<>();
+        list.setMetricsListener(new ListMetricsListener() {
+            @Override
+            public void lockAcquired(boolean exclusive, long waitNanos) {
+                if (exclusive) {
+                    seenSizes.add(list.size());
+                }
+            }
+
+            @Override
+            public void shifted(int elementsMoved) {
+                assertTrue(list.contains(one));
+            }
+
+            @Override
+            public void set(boolean fastPath) {
+                if (!fastPath) {
+                    list.set(0, m1);
+                }
+            }
+        });
+        Thread worker = newStartedThread(new CheckedRunnable() {
+            public void realRun() {
+                list.add(0, zero);
+                list.remove(0);
+                list.set(3, three);
+                list.trimToSize();
+            }
+        });
+        awaitTermination(worker, 10_000);
+        assertEquals(Arrays.asList(3, 2, 4, 4), seenSizes);
+        assertEquals(Arrays.asList(m1, two, null, three), list);
+    }
+
+    /**
+     * the metrics can be registered and read through the platform MBean server
+     */
+    @Test
+    public void testMBean() throws Exception {
+        ListMetrics metrics = new ListMetrics();
+        AtomicReferenceArrayList<Integer> list = new AtomicReferenceArrayList<>(1);
+        list.setMetricsListener(metrics);
+        list.add(one);
+        list.add(two);
+        ObjectName name = metrics.register("io.github.pr0methean.util:type=ListMetrics,name=test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertTrue(server.isRegistered(name));
+            assertEquals(1L, server.getAttribute(name, "Resizes"));
+            assertEquals(2L, server.getAttribute(name, "ReadLockAcquisitions"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "Resizes"));
+        } finally {
+            ListMetrics.unregister(name);
+        }
+        assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.pr0methean.util;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+
+public class OffHeapAtomicLongArrayTest extends JSR166TestCase {
+
+    /**
+     * slots in different buffers are independent, and all start at zero
+     */
+    @Test
+    public void testGetAndSetAcrossBuffers() {
+        try (OffHeapAtomicLongArray a = new OffHeapAtomicLongArray(100, 3)) {
+            assertEquals(100, a.length());
+            for (long i = 0; i < 100; i++) {
+                assertEquals(0, a.get(i));
+                a.set(i, -i);
+            }
+            for (long i = 0; i < 100; i++) {
+                assertEquals(-i, a.get(i));
+            }
+            assertEquals(-99, a.getAndSet(99, Long.MAX_VALUE));
+            assertEquals(Long.MAX_VALUE, a.get(99));
+        }
+    }
+
+    /**
+     * compareAndSet and the arithmetic updates behave as on AtomicLongArray
+     */
+    @Test
+    public void testAtomicUpdates() {
+        try (OffHeapAtomicLongArray a = new OffHeapAtomicLongArray(10)) {
+            assertTrue(a.compareAndSet(5, 0, 7));
+            assertFalse(a.compareAndSet(5, 0, 8));
+            assertEquals(7, a.getAndAdd(5, 3));
+            assertEquals(12, a.addAndGet(5, 2));
+            assertEquals(13, a.incrementAndGet(5));
+            assertEquals(12, a.decrementAndGet(5));
+        }
+    }
+
+    /**
+     * indices out of bounds and access after close are rejected
+     */
+    @Test
+    public void testBoundsAndClose() {
+        OffHeapAtomicLongArray a = new OffHeapAtomicLongArray(10, 2);
+        try {
+            a.get(10);
+            shouldThrow();
+        } catch (IndexOutOfBoundsException success) {}
+        try {
+            a.set(-1, 0);
+            shouldThrow();
+        } catch (IndexOutOfBoundsException success) {}
+        a.close();
+        a.close();
+        try {
+            a.get(0);
+            shouldThrow();
+        } catch (IllegalStateException success) {}
+    }
+
+    /**
+     * concurrent increments are all counted
+     */
+    @Test
+    public void testConcurrentIncrement() {
+        final int threads = 4;
+        final int perThread = 10_000;
+        try (final OffHeapAtomicLongArray a = new OffHeapAtomicLongArray(2, 0)) {
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                workers[t] = newStartedThread(new CheckedRunnable() {
+                    public void realRun() {
+                        for (int i = 0; i < perThread; i++) {
+                            a.incrementAndGet(i & 1);
+                        }
+                    }
+                });
+            }
+            for (Thread worker : workers) {
+                awaitTermination(worker, 10_000);
+            }
+            assertEquals(threads * perThread / 2, a.get(0));
+            assertEquals(threads * perThread / 2, a.get(1));
+        }
+    }
+}